@@ -0,0 +1,71 @@
+package com.tangazoletu.spotcashesb.benchmarks;
+
+import com.tangazoletu.spotcashesb.security.userdetails.ConfigIdSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Permission lookup per request: the bitmap (dense IDs) and sorted-array (sparse IDs)
+ * forms of {@link ConfigIdSet}, against the boxed {@code Set<Long>} it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigIdSetBenchmark {
+
+    @Param({"10", "500", "5000"})
+    public int permissions;
+
+    // dense: IDs below the bitmap limit; sparse: IDs spread past it, forcing binary search
+    @Param({"dense", "sparse"})
+    public String layout;
+
+    private ConfigIdSet configIds;
+    private Set<Long> boxed;
+    private long[] probes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        long range = "dense".equals(layout) ? 60_000 : 10_000_000;
+        long[] ids = random.longs(permissions, 1, range).toArray();
+        configIds = ConfigIdSet.of(ids);
+        boxed = new HashSet<>();
+        for (long id : ids) {
+            boxed.add(id);
+        }
+        // Half hits, half misses
+        probes = new long[1024];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = i % 2 == 0 ? ids[random.nextInt(ids.length)] : random.nextLong(1, range);
+        }
+    }
+
+    @Benchmark
+    public boolean configIdSet() {
+        return configIds.contains(probes[next++ & 1023]);
+    }
+
+    @Benchmark
+    public boolean boxedHashSet() {
+        return boxed.contains(probes[next++ & 1023]);
+    }
+}
@@ -0,0 +1,94 @@
+package com.tangazoletu.spotcashesb.benchmarks;
+
+import com.tangazoletu.spotcashesb.security.ip.IpWhitelist;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whitelist check per request: the compiled range matcher against the per-entry
+ * regex match it replaced. Run with {@code -prof gc} to confirm the IPv4 and
+ * IPv6 paths allocate nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IpWhitelistBenchmark {
+
+    // Exact entries in the whitelist, plus one wildcard, one CIDR and one IPv6 entry
+    @Param({"1", "10", "100"})
+    public int entries;
+
+    private List<String> rawEntries;
+    private IpWhitelist whitelist;
+
+    // Matches the last entry, so a linear scan does the most work
+    private String ipv4Hit;
+    private String ipv4Miss;
+    private String ipv6Hit;
+
+    @Setup
+    public void setup() {
+        rawEntries = new ArrayList<>();
+        for (int i = 0; i < entries; i++) {
+            rawEntries.add("10.20." + (i / 250) + "." + (i % 250));
+        }
+        rawEntries.add("192.168.1.*");
+        rawEntries.add("172.16.0.0/12");
+        rawEntries.add("2001:db8::/32");
+        whitelist = IpWhitelist.compile(rawEntries);
+
+        ipv4Hit = "172.16.4.9";
+        ipv4Miss = "8.8.8.8";
+        ipv6Hit = "2001:db8:0:1::42";
+    }
+
+    @Benchmark
+    public boolean compiledIpv4Hit() {
+        return whitelist.allows(ipv4Hit);
+    }
+
+    @Benchmark
+    public boolean compiledIpv4Miss() {
+        return whitelist.allows(ipv4Miss);
+    }
+
+    @Benchmark
+    public boolean compiledIpv6Hit() {
+        return whitelist.allows(ipv6Hit);
+    }
+
+    @Benchmark
+    public IpWhitelist compile() {
+        return IpWhitelist.compile(rawEntries);
+    }
+
+    // The pre-compilation IPFilter: exact string match, else a regex per wildcard entry
+    @Benchmark
+    public boolean regexIpv4Miss() {
+        for (String pattern : rawEntries) {
+            if (ipv4Miss.equals(pattern)) {
+                return true;
+            }
+            if (pattern.contains("*") && ipv4Miss.matches(pattern.replace(".", "\\.").replace("*", ".*"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
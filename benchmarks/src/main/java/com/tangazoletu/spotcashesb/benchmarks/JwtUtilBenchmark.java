@@ -0,0 +1,67 @@
+package com.tangazoletu.spotcashesb.benchmarks;
+
+import com.tangazoletu.spotcashesb.security.jwt.JwtUtil;
+import com.tangazoletu.spotcashesb.security.jwt.TokenValidationResult;
+import com.tangazoletu.spotcashesb.security.userdetails.SecurityUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token work: verification with and without the verified-token cache,
+ * and rebuilding the principal from stateless claims. Token issue is measured too,
+ * since it runs on every login.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    @Param({"false", "true"})
+    public boolean tokenCache;
+
+    @Param({"10", "500"})
+    public int permissions;
+
+    private JwtUtil jwtUtil;
+    private SecurityUser user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new SecurityFixture(tokenCache, true).jwtUtil;
+        user = SecurityFixture.user(permissions);
+        token = jwtUtil.generateToken(user);
+        if (!jwtUtil.verify(token).isValid()) {
+            throw new IllegalStateException("Fixture token does not verify");
+        }
+    }
+
+    @Benchmark
+    public TokenValidationResult verify() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public SecurityUser verifyAndAuthorizeStateless() {
+        return jwtUtil.getUserFromToken(jwtUtil.verify(token).getToken());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+}
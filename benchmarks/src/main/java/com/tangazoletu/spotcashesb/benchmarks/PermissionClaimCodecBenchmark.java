@@ -0,0 +1,56 @@
+package com.tangazoletu.spotcashesb.benchmarks;
+
+import com.tangazoletu.spotcashesb.security.jwt.PermissionClaimCodec;
+import com.tangazoletu.spotcashesb.security.userdetails.ConfigIdSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The "perm" claim: encoded once per login, decoded on every stateless request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PermissionClaimCodecBenchmark {
+
+    @Param({"10", "500", "5000"})
+    public int permissions;
+
+    // Upper bound of the ID range - small ranges pick the bitmap form, large ones the delta form
+    @Param({"1000", "1000000"})
+    public long idRange;
+
+    private ConfigIdSet configIds;
+    private String claim;
+
+    @Setup
+    public void setup() {
+        configIds = ConfigIdSet.of(new SplittableRandom(42).longs(permissions, 1, idRange).toArray());
+        claim = PermissionClaimCodec.encode(configIds);
+    }
+
+    @Benchmark
+    public String encode() {
+        return PermissionClaimCodec.encode(configIds);
+    }
+
+    @Benchmark
+    public ConfigIdSet decode() {
+        return PermissionClaimCodec.decode(claim);
+    }
+}
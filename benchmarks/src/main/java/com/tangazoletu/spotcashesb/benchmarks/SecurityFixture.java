@@ -0,0 +1,61 @@
+package com.tangazoletu.spotcashesb.benchmarks;
+
+import com.tangazoletu.spotcashesb.configuration.security.ClusterSyncProperties;
+import com.tangazoletu.spotcashesb.configuration.security.JwtProperties;
+import com.tangazoletu.spotcashesb.entity.ApiUser;
+import com.tangazoletu.spotcashesb.entity.enums.ApiUserStatus;
+import com.tangazoletu.spotcashesb.security.ip.IpWhitelistCache;
+import com.tangazoletu.spotcashesb.security.jwt.JwtUtil;
+import com.tangazoletu.spotcashesb.security.jwt.PermissionVersionRegistry;
+import com.tangazoletu.spotcashesb.security.jwt.TokenPreValidator;
+import com.tangazoletu.spotcashesb.security.jwt.TokenRevocationRegistry;
+import com.tangazoletu.spotcashesb.security.jwt.VerifiedTokenCache;
+import com.tangazoletu.spotcashesb.security.metrics.SecurityMetrics;
+import com.tangazoletu.spotcashesb.security.userdetails.SecurityUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * The token pipeline wired by hand, without Spring or a database. The principal
+ * loader is left out: these benchmarks cover verification and the stateless
+ * path, which never reach it.
+ */
+final class SecurityFixture {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+
+    final JwtProperties jwtProperties = new JwtProperties();
+    final SecurityMetrics securityMetrics = new SecurityMetrics(new SimpleMeterRegistry());
+    final TokenPreValidator tokenPreValidator;
+    final JwtUtil jwtUtil;
+
+    SecurityFixture(boolean tokenCache, boolean stateless) {
+        jwtProperties.setSecretKey(SECRET);
+        jwtProperties.getTokenCache().setEnabled(tokenCache);
+        jwtProperties.getStatelessAuthorization().setEnabled(stateless);
+
+        tokenPreValidator = new TokenPreValidator(jwtProperties, securityMetrics);
+        jwtUtil = new JwtUtil(
+                jwtProperties,
+                new ClusterSyncProperties(),
+                null,   // CustomUserDetailsService - not reached
+                new VerifiedTokenCache(jwtProperties),
+                new PermissionVersionRegistry(),
+                new IpWhitelistCache(),
+                new TokenRevocationRegistry(),
+                tokenPreValidator);
+    }
+
+    static SecurityUser user(int permissions) {
+        ApiUser apiUser = ApiUser.builder()
+                .id(42L)
+                .username("bench-client")
+                .applicationName("BENCH")
+                .status(ApiUserStatus.ACTIVE)
+                .whitelistedIps(List.of("10.0.0.0/8", "192.168.1.*"))
+                .build();
+        return new SecurityUser(apiUser, LongStream.rangeClosed(1, permissions).boxed().toList());
+    }
+}
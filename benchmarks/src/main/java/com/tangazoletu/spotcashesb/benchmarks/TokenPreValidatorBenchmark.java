@@ -0,0 +1,64 @@
+package com.tangazoletu.spotcashesb.benchmarks;
+
+import com.tangazoletu.spotcashesb.security.jwt.TokenPreValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the structural checks, for a token that passes them and for the junk and
+ * foreign tokens they exist to turn away before HMAC verification.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenPreValidatorBenchmark {
+
+    private TokenPreValidator preValidator;
+    private String valid;
+    private String junk;
+    private String foreignAlgorithm;
+
+    @Setup
+    public void setup() {
+        SecurityFixture fixture = new SecurityFixture(false, false);
+        preValidator = fixture.tokenPreValidator;
+        valid = fixture.jwtUtil.generateToken(SecurityFixture.user(50));
+        junk = "not-a-token-" + "x".repeat(120);
+
+        // Same payload under an HS256 header
+        String payload = valid.substring(valid.indexOf('.') + 1, valid.lastIndexOf('.'));
+        String header = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        foreignAlgorithm = header + "." + payload + "." + valid.substring(valid.lastIndexOf('.') + 1);
+    }
+
+    @Benchmark
+    public TokenPreValidator.Failure validToken() {
+        return preValidator.check(valid, 0);
+    }
+
+    @Benchmark
+    public TokenPreValidator.Failure junkToken() {
+        return preValidator.check(junk, 0);
+    }
+
+    @Benchmark
+    public TokenPreValidator.Failure foreignAlgorithm() {
+        return preValidator.check(foreignAlgorithm, 0);
+    }
+}
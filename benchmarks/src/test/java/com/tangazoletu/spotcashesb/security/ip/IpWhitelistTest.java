@@ -0,0 +1,136 @@
+package com.tangazoletu.spotcashesb.security.ip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpWhitelistTest {
+
+    @ParameterizedTest(name = "{0} allows {1}: {2}")
+    @CsvSource(delimiter = '|', textBlock = """
+            # Exact
+            192.168.1.100         | 192.168.1.100            | true
+            192.168.1.100         | 192.168.1.101            | false
+            192.168.1.100         | ::ffff:192.168.1.100     | true
+            2001:db8::1           | 2001:db8:0:0:0:0:0:1     | true
+            2001:db8::1           | 2001:DB8::1              | true
+            2001:db8::1           | 2001:db8::2              | false
+            ::1                   | [::1]                    | true
+
+            # Wildcard
+            192.168.1.*           | 192.168.1.255            | true
+            192.168.1.*           | 192.168.2.1              | false
+            10.*                  | 10.200.3.4               | true
+            10.*                  | 11.0.0.1                 | false
+            192.*.1.1             | 192.77.1.1               | true
+            192.*.1.1             | 192.77.1.2               | false
+            *                     | 8.8.8.8                  | true
+            *                     | 2001:db8::1              | true
+
+            # Partial octet - what the regex matched: 1, 10-19, 100-199
+            192.168.1.1*          | 192.168.1.1              | true
+            192.168.1.1*          | 192.168.1.15             | true
+            192.168.1.1*          | 192.168.1.150            | true
+            192.168.1.1*          | 192.168.1.2              | false
+            192.168.1.1*          | 192.168.1.200            | false
+            192.168.1.2*          | 192.168.1.255            | true
+            192.168.1.2*          | 192.168.1.199            | false
+            192.168.1.0*          | 192.168.1.0              | true
+            192.168.1.0*          | 192.168.1.10             | false
+            192.168.1*            | 192.168.17.3             | true
+            192.168.1*            | 192.168.2.3              | false
+            19*.168.1.1           | 19.168.1.1               | true
+            19*.168.1.1           | 195.168.1.1              | true
+            19*.168.1.1           | 20.168.1.1               | false
+
+            # IPv6 wildcard
+            2001:db8:*            | 2001:db8:ffff::1         | true
+            2001:db8:*            | 2001:db8::1              | true
+            2001:db8:*            | 2001:db9::1              | false
+            2001:db8:a*           | 2001:db8:a::1            | true
+            2001:db8:a*           | 2001:db8:ab::1           | true
+            2001:db8:a*           | 2001:db8:abcd::1         | true
+            2001:db8:a*           | 2001:db8:b::1            | false
+            2001:db8:0:0:0:0:0:*  | 2001:db8::ff             | true
+            2001:db8:0:0:0:0:0:*  | 2001:db8::1:0            | false
+
+            # CIDR
+            10.0.0.0/8            | 10.255.255.255           | true
+            10.0.0.0/8            | 11.0.0.0                 | false
+            172.16.0.0/12         | 172.31.0.1               | true
+            172.16.0.0/12         | 172.32.0.1               | false
+            192.168.1.7/32        | 192.168.1.7              | true
+            192.168.1.7/32        | 192.168.1.8              | false
+            0.0.0.0/0             | 1.2.3.4                  | true
+            2001:db8::/32         | 2001:db8:ffff:ffff::1    | true
+            2001:db8::/32         | 2001:db9::               | false
+            2001:db8::/127        | 2001:db8::1              | true
+            2001:db8::/127        | 2001:db8::2              | false
+            fe80::/64             | [fe80::1%eth0]           | true
+
+            # Clients that are not addresses
+            192.168.1.*           | 192.168.1.256            | false
+            192.168.1.*           | 192.168.1                | false
+            192.168.1.*           | not-an-ip                | false
+            2001:db8:*            | 2001:db8::1::2           | false
+            """)
+    void matchesEntry(String entry, String clientIp, boolean allowed) {
+        assertThat(IpWhitelist.compile(List.of(entry)).allows(clientIp)).isEqualTo(allowed);
+    }
+
+    @Test
+    void noEntriesAllowsEveryone() {
+        assertThat(IpWhitelist.compile(List.of()).allows("203.0.113.9")).isTrue();
+        assertThat(IpWhitelist.compile(null).allows("2001:db8::1")).isTrue();
+    }
+
+    @Test
+    void matchesAnyOfSeveralEntries() {
+        IpWhitelist whitelist = IpWhitelist.compile(List.of("10.0.0.1", "192.168.1.*", "2001:db8::/32"));
+
+        assertThat(whitelist.allows("10.0.0.1")).isTrue();
+        assertThat(whitelist.allows("192.168.1.42")).isTrue();
+        assertThat(whitelist.allows("2001:db8::42")).isTrue();
+        assertThat(whitelist.allows("10.0.0.2")).isFalse();
+        assertThat(whitelist.allows("")).isFalse();
+        assertThat(whitelist.allows(null)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "192.168.1",            // short without a trailing '*'
+            "300.1.1.1",
+            "1*2.1.1.1",            // '*' inside a number
+            "*.*.*.1",              // 16M prefixes to expand
+            "10.0.0.0/33",
+            "2001:db8::*",          // prefix length after "::" is a guess
+            "2001:*:1",
+            "2001:*:0:0:0:0:0:1",   // fixed group after the wildcard
+            "2001:db8:fffff:*",
+            "hello"
+    })
+    void rejectsInvalidEntries(String entry) {
+        assertThat(IpWhitelist.invalidEntries(List.of("10.0.0.1", entry))).containsExactly(entry);
+        // Skipped at compile time rather than widening the whitelist
+        assertThat(IpWhitelist.compile(List.of(entry)).allows("10.0.0.1")).isFalse();
+    }
+
+    @Test
+    void acceptsEveryValidForm() {
+        assertThat(IpWhitelist.invalidEntries(List.of(
+                "192.168.1.100", "192.168.1.*", "10.*", "192.*.1.1", "192.168.1.1*", "*",
+                "10.0.0.0/8", "2001:db8::1", "2001:db8:*", "2001:db8:a*", "2001:db8::/32", " 10.0.0.2 ")))
+                .isEmpty();
+    }
+
+    @Test
+    void fingerprintIgnoresSurroundingWhitespace() {
+        assertThat(IpWhitelist.compile(List.of(" 10.0.0.1 ")).getFingerprint())
+                .isEqualTo(IpWhitelist.compile(List.of("10.0.0.1")).getFingerprint());
+    }
+}
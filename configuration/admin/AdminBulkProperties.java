@@ -0,0 +1,28 @@
+package com.tangazoletu.spotcashesb.configuration.admin;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "esb.admin.bulk")
+@Validated
+public class AdminBulkProperties {
+
+    // Rows per JDBC batch / transaction; also the size of IN lists, so Oracle's 1000 cap applies
+    @Min(value = 1, message = "Bulk batch size must be positive")
+    @Max(value = 1000, message = "Bulk batch size cannot exceed 1000")
+    private int batchSize = 500;
+
+    // Threads hashing imported passwords; 0 = half the cores, leaving room for the login pool
+    @Min(value = 0, message = "Import hashing thread count cannot be negative")
+    private int hashThreads = 0;
+
+    public int resolveHashThreads() {
+        return hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+}
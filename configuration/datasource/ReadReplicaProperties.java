@@ -0,0 +1,59 @@
+package com.tangazoletu.spotcashesb.configuration.datasource;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for @Transactional(readOnly = true) auth-path reads. Writes and
+ * non-read-only transactions always use spring.datasource (the primary).
+ * <p>
+ * For a local setup, point the primary and one replica at two embedded H2
+ * databases with lag-query {@code SELECT 0}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "esb.datasource.replica")
+@Validated
+public class ReadReplicaProperties {
+
+    private boolean enabled = false;
+
+    @Valid
+    private List<Replica> replicas = new ArrayList<>();
+
+    // Replicas further behind than this are taken out of rotation until they catch up
+    @Min(value = 0, message = "Maximum replica lag cannot be negative")
+    private long maxLagSeconds = 5;
+
+    // Must return one numeric column: lag in seconds. Required - without it lag is unbounded,
+    // and the primary-read window for recently changed users assumes max-lag-seconds holds,
+    // so replicas stay out of rotation until it is set
+    private String lagQuery;
+
+    @Min(value = 100, message = "Replica check interval must be at least 100 ms")
+    private long checkIntervalMs = 5000;
+
+    @Data
+    public static class Replica {
+        @NotBlank(message = "Replica name is required")
+        private String name;
+
+        @NotBlank(message = "Replica URL is required")
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        @Min(value = 1, message = "Replica pool size must be positive")
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,118 @@
+package com.tangazoletu.spotcashesb.configuration.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Periodically checks each replica's reachability and lag and tells the
+ * routing data source which replicas may serve reads. A replica that fails
+ * or falls behind is dropped from rotation; reads fall back to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements MeterBinder {
+
+    private final Map<String, DataSource> replicas;
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReadReplicaProperties properties;
+
+    private Set<String> lastHealthy = new HashSet<>();
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas,
+                             ReplicaRoutingDataSource routingDataSource,
+                             ReadReplicaProperties properties) {
+        this.replicas = replicas;
+        this.routingDataSource = routingDataSource;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!hasLagQuery()) {
+            log.warn("esb.datasource.replica.lag-query is not set - replica lag cannot be bounded, "
+                    + "all reads stay on the primary");
+        }
+        check();
+    }
+
+    @Scheduled(fixedDelayString = "${esb.datasource.replica.check-interval-ms:5000}",
+               initialDelayString = "${esb.datasource.replica.check-interval-ms:5000}")
+    public synchronized void check() {
+        List<String> healthy = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> {
+            if (isUsable(name, dataSource)) {
+                healthy.add(name);
+            }
+        });
+        routingDataSource.setHealthyReplicas(healthy);
+
+        Set<String> current = new HashSet<>(healthy);
+        if (!current.equals(lastHealthy)) {
+            log.info("Replicas in rotation: {} of {} {}", current.size(), replicas.size(), current);
+            lastHealthy = current;
+        }
+    }
+
+    private boolean isUsable(String name, DataSource dataSource) {
+        // Reachable isn't enough: readers of recently changed users rely on max-lag-seconds
+        if (!hasLagQuery()) {
+            return false;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(properties.getLagQuery())) {
+                if (!resultSet.next()) {
+                    log.warn("Replica '{}' lag query returned no rows", name);
+                    return false;
+                }
+                double lagSeconds = resultSet.getDouble(1);
+                if (lagSeconds > properties.getMaxLagSeconds()) {
+                    log.warn("Replica '{}' is {}s behind (max {}s)", name, lagSeconds, properties.getMaxLagSeconds());
+                    return false;
+                }
+                return true;
+            }
+        } catch (Exception e) {
+            log.warn("Replica '{}' unavailable: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean hasLagQuery() {
+        return properties.getLagQuery() != null && !properties.getLagQuery().isBlank();
+    }
+
+    @PreDestroy
+    public void close() {
+        replicas.values().forEach(dataSource -> {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.debug("Error closing replica pool: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("esb.datasource.replicas.healthy", routingDataSource,
+                        ReplicaRoutingDataSource::healthyReplicaCount)
+                .register(registry);
+    }
+}
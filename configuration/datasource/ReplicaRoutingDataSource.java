@@ -0,0 +1,43 @@
+package com.tangazoletu.spotcashesb.configuration.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to a healthy replica (round robin)
+ * and everything else to the primary. Must sit behind a LazyConnectionDataSourceProxy:
+ * the read-only flag is only bound after the transaction manager has begun, so the
+ * physical connection has to be fetched lazily on the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    // Replaced wholesale by ReplicaLagMonitor; empty = every read goes to the primary
+    private volatile List<String> healthyReplicas = List.of();
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(nextReplica.getAndIncrement(), healthy.size()));
+    }
+
+    void setHealthyReplicas(List<String> replicas) {
+        this.healthyReplicas = List.copyOf(replicas);
+    }
+
+    int healthyReplicaCount() {
+        return healthyReplicas.size();
+    }
+}
@@ -0,0 +1,42 @@
+package com.tangazoletu.spotcashesb.configuration.security;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.UUID;
+
+/**
+ * Keeps in-memory security state coherent across nodes by polling the
+ * database for changes made elsewhere. Off by default - a single node
+ * needs none of it, and enabling it requires the API_CHANGE_LOG table.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "esb.security.cluster-sync")
+@Validated
+public class ClusterSyncProperties {
+
+    private boolean enabled = false;
+
+    // Identifies this instance's rows in API_CHANGE_LOG; unique per process by default
+    @NotBlank(message = "Cluster sync node ID must not be blank")
+    private String nodeId = UUID.randomUUID().toString();
+
+    @Min(value = 100, message = "Cluster sync poll interval must be at least 100 ms")
+    private long pollIntervalMs = 5000;
+
+    @Min(value = 1, message = "Cluster sync batch size must be positive")
+    private int batchSize = 500;
+
+    // Change-log rows this recent are re-read in case they committed behind the high-water mark;
+    // also absorbs clock skew between nodes
+    @Min(value = 1, message = "Cluster sync overlap must be at least 1 second")
+    private long overlapSeconds = 30;
+
+    @Min(value = 1, message = "Change log retention must be at least 1 hour")
+    private long retentionHours = 24;
+}
@@ -1,5 +1,6 @@
 package com.tangazoletu.spotcashesb.configuration.security;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
@@ -7,6 +8,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.HashSet;
+import java.util.Set;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "jwt")
@@ -24,4 +28,57 @@ public class JwtProperties {
 
     // How long after expiry a token can still be refreshed (default: 5 min grace)
     private long refreshGracePeriodSeconds = 300;
+
+    // Longer bearer tokens are rejected before any parsing. Tokens whose permission claims would
+    // exceed it are issued without them, so those users authorize through the principal lookup
+    @Min(value = 512, message = "Max token length must be at least 512 characters")
+    private int maxTokenLength = 8192;
+
+    // Verified-token cache: lets repeat callers skip HMAC verification until exp
+    @Valid
+    private TokenCache tokenCache = new TokenCache();
+
+    // Opt-in: embed permissions in the token so requests authorize without a principal lookup
+    @Valid
+    private StatelessAuthorization statelessAuthorization = new StatelessAuthorization();
+
+    @Data
+    public static class TokenCache {
+        private boolean enabled = false;
+
+        @Min(value = 1, message = "Token cache size must be positive")
+        private long maximumSize = 10_000;
+    }
+
+    @Data
+    public static class StatelessAuthorization {
+        private boolean enabled = false;
+
+        // Application names that get permission claims; empty = every application
+        private Set<String> applications = new HashSet<>();
+
+        // Without change replay a node can miss admin changes (made elsewhere or before a restart)
+        public static final long UNSYNCED_MAX_AGE_SECONDS = 300;
+
+        // Claims older than this are ignored and the principal is loaded normally.
+        // 0 = the whole token lifetime when cluster sync replays changes to every node's
+        // PermissionVersionRegistry and revocation epochs (including at startup), otherwise
+        // UNSYNCED_MAX_AGE_SECONDS
+        @Min(value = 0, message = "Stateless claim max age cannot be negative")
+        private long maxAgeSeconds = 0;
+
+        public boolean appliesTo(String applicationName) {
+            return enabled && (applications.isEmpty() || applications.contains(applicationName));
+        }
+
+        /**
+         * @param changesReplayed whether every admin change within the token lifetime reaches this node
+         */
+        public long resolveMaxAgeSeconds(long accessTokenLifetime, boolean changesReplayed) {
+            if (maxAgeSeconds > 0) {
+                return maxAgeSeconds;
+            }
+            return changesReplayed ? accessTokenLifetime : Math.min(UNSYNCED_MAX_AGE_SECONDS, accessTokenLifetime);
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package com.tangazoletu.spotcashesb.configuration.security;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "esb.security.login")
+@Validated
+public class LoginProperties {
+
+    // Credential checks run on a dedicated pool so login bursts can't starve token traffic
+    @Valid
+    private Hashing hashing = new Hashing();
+
+    // Decaying failure counters checked before any DB lookup or hash
+    @Valid
+    private Throttle throttle = new Throttle();
+
+    @Data
+    public static class Hashing {
+        // 0 = one thread per available core
+        @Min(value = 0, message = "Hashing thread count cannot be negative")
+        private int threads = 0;
+
+        @Min(value = 1, message = "Hashing queue capacity must be positive")
+        private int queueCapacity = 100;
+
+        // Checks that waited longer than this are dropped before hashing
+        @Min(value = 1, message = "Hashing queue wait must be at least 1 ms")
+        private long maxQueueWaitMs = 2000;
+
+        // Sent as Retry-After when a login is turned away
+        @Min(value = 1, message = "Retry-After must be at least 1 second")
+        private long retryAfterSeconds = 1;
+
+        public int resolveThreads() {
+            return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    @Data
+    public static class Throttle {
+        private boolean enabled = true;
+
+        // Distinct usernames / IPs tracked per dimension; least valuable keys are evicted first
+        @Min(value = 1, message = "Throttle key capacity must be positive")
+        private long maximumKeys = 100_000;
+
+        @Valid
+        private Limit username = new Limit(5, 300);
+
+        // Higher than the username limit - several partners may share a NAT address
+        @Valid
+        private Limit ip = new Limit(50, 300);
+
+        // Bad passwords for one account before it is set to LOCKED; 0 = never lock
+        @Min(value = 0, message = "Lock threshold cannot be negative")
+        private int lockAfterFailures = 0;
+
+        @Min(value = 1, message = "Lock window must be at least 1 second")
+        private long lockWindowSeconds = 3600;
+
+        // Load balancers / reverse proxies whose X-Forwarded-For the IP limit may believe (exact, CIDR
+        // or wildcard). Empty = key on the peer address; behind a proxy, list it or every client shares a key
+        private List<String> trustedProxies = new ArrayList<>();
+    }
+
+    /**
+     * At most {@code maxFailures} failures per {@code decaySeconds}; each failure
+     * decays after {@code decaySeconds / maxFailures}.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        @Min(value = 1, message = "Failure limit must be positive")
+        private int maxFailures;
+
+        @Min(value = 1, message = "Failure decay must be at least 1 second")
+        private long decaySeconds;
+    }
+}
@@ -0,0 +1,35 @@
+package com.tangazoletu.spotcashesb.configuration.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Credentials for the Prometheus scraper on /actuator/prometheus. The scraper uses
+ * HTTP basic with a fixed account instead of an ESB token: a token needs a user,
+ * a function grant, a whitelisted IP and renewal, none of which Prometheus can do.
+ * <pre>
+ * esb.security.metrics-scrape.username=prometheus
+ * esb.security.metrics-scrape.password={bcrypt}$2a$10$...
+ *
+ * # prometheus.yml
+ * basic_auth:
+ *   username: prometheus
+ *   password_file: /etc/prometheus/esb-scrape-password
+ * </pre>
+ * With no password configured the endpoint stays closed.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "esb.security.metrics-scrape")
+public class MetricsScrapeProperties {
+
+    private String username = "prometheus";
+
+    // Stored encoded with its id prefix, e.g. {bcrypt}...; blank = scraping disabled
+    private String password;
+
+    public boolean isEnabled() {
+        return password != null && !password.isBlank();
+    }
+}
@@ -0,0 +1,28 @@
+package com.tangazoletu.spotcashesb.configuration.security;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Per-client, per-function request quotas. The limits themselves live on
+ * API_CONFIGS / API_USER_PERMISSION; this only controls enforcement.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "esb.security.quota")
+@Validated
+public class QuotaProperties {
+
+    private boolean enabled = true;
+
+    // Distinct (client, function) pairs tracked; the coldest are evicted first
+    @Min(value = 1, message = "Quota key capacity must be positive")
+    private long maximumKeys = 100_000;
+
+    // An idle pair is forgotten after this long - it must exceed burst / rate for any quota
+    @Min(value = 1, message = "Quota idle expiry must be at least 1 second")
+    private long idleExpirySeconds = 600;
+}
@@ -0,0 +1,46 @@
+package com.tangazoletu.spotcashesb.configuration.security;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "esb.security.cache")
+@Validated
+public class SecurityCacheProperties {
+
+    // Loaded SecurityUser per username - invalidated by admin changes, TTL is a safety net
+    @Valid
+    private Principal principal = new Principal();
+
+    // Memoized principal + function decisions per (user, function); enabling it replaces the three gates with FusedSecurityFilter
+    @Valid
+    private Decision decision = new Decision();
+
+    @Data
+    public static class Principal {
+        private boolean enabled = true;
+
+        @Min(value = 1, message = "Principal cache TTL must be at least 1 second")
+        private long ttlSeconds = 60;
+
+        @Min(value = 1, message = "Principal cache size must be positive")
+        private long maximumSize = 10_000;
+    }
+
+    @Data
+    public static class Decision {
+        private boolean enabled = false;
+
+        // Safety net for rows edited directly in the database - admin changes invalidate immediately
+        @Min(value = 1, message = "Decision cache TTL must be at least 1 second")
+        private long ttlSeconds = 30;
+
+        @Min(value = 1, message = "Decision cache size must be positive")
+        private long maximumSize = 100_000;
+    }
+}
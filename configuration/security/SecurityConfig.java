@@ -1,22 +1,33 @@
 package com.tangazoletu.spotcashesb.configuration.security;
 
 import com.tangazoletu.spotcashesb.security.filter.ApiAuthorizationFilter;
+import com.tangazoletu.spotcashesb.security.filter.FusedSecurityFilter;
 import com.tangazoletu.spotcashesb.security.filter.IPFilter;
 import com.tangazoletu.spotcashesb.security.filter.JwtTokenFilter;
+import com.tangazoletu.spotcashesb.security.metrics.SecurityMetrics;
+import com.tangazoletu.spotcashesb.security.metrics.TimedPasswordEncoder;
+import com.tangazoletu.spotcashesb.security.web.SecurityRejectionWriter;
+import jakarta.servlet.Filter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -26,17 +37,58 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String SCRAPER_ROLE = "METRICS_SCRAPER";
+
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
+    private final SecurityMetrics securityMetrics;
+    private final SecurityCacheProperties cacheProperties;
+    private final SecurityRejectionWriter rejectionWriter;
+    private final MetricsScrapeProperties metricsScrapeProperties;
 
     // The three gates
     private final JwtTokenFilter jwtTokenFilter;          // Gate 1: Who are you?
     private final IPFilter ipFilter;                       // Gate 2: Where are you from?
     private final ApiAuthorizationFilter apiAuthorizationFilter; // Gate 3: Are you allowed?
 
+    // All three gates in one pass, with memoized decisions
+    private final FusedSecurityFilter fusedSecurityFilter;
+
+    /**
+     * Actuator endpoints, ahead of the API chain. None of the gates run here: health is
+     * public, /actuator/prometheus takes HTTP basic with the fixed scraper account from
+     * {@link MetricsScrapeProperties}, and every other endpoint is closed.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        if (!metricsScrapeProperties.isEnabled()) {
+            log.info("esb.security.metrics-scrape.password not set - /actuator/prometheus is closed");
+        }
+        http
+                .securityMatcher("/actuator/**")
+                .authorizeHttpRequests(auth -> {
+                    auth.requestMatchers("/actuator/health").permitAll();   // Liveness only
+                    if (metricsScrapeProperties.isEnabled()) {
+                        auth.requestMatchers("/actuator/prometheus").hasRole(SCRAPER_ROLE);
+                    }
+                    auth.anyRequest().denyAll();
+                })
+                .authenticationManager(scrapeAuthenticationManager())
+                .httpBasic(basic -> basic.authenticationEntryPoint(rejectionWriter))
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session ->
+                        session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(rejectionWriter)
+                        .accessDeniedHandler(rejectionWriter));
+        return http.build();
+    }
+
     @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-        return http
+        http
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/esb/authenticate").permitAll()   // Public login
                         .anyRequest().authenticated()                        // Everything else requires token
@@ -44,13 +96,45 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)   // Stateless API - CSRF not needed
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // Rejections are written directly - no sendError, so no second pass through /error
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(rejectionWriter)
+                        .accessDeniedHandler(rejectionWriter));
+
+        if (cacheProperties.getDecision().isEnabled()) {
+            // Same checks, same order; only the IP-independent part is memoized per (user, function)
+            http.addFilterBefore(fusedSecurityFilter, UsernamePasswordAuthenticationFilter.class);
+            log.info("Security gates fused into FusedSecurityFilter with decision caching");
+        } else {
+            // Gate 1 → Gate 2 → Gate 3 (strict order per design doc)
+            http.addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class)
+                    .addFilterAfter(ipFilter, JwtTokenFilter.class)
+                    .addFilterAfter(apiAuthorizationFilter, IPFilter.class);
+        }
+
+        return http.build();
+    }
+
+    // The gates are @Components, so Boot would also register them as servlet filters and run
+    // them again after the security chain - where the unused ones would charge quota twice
+    @Bean
+    public FilterRegistrationBean<JwtTokenFilter> jwtTokenFilterRegistration() {
+        return disabledRegistration(jwtTokenFilter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<IPFilter> ipFilterRegistration() {
+        return disabledRegistration(ipFilter);
+    }
 
-                // Gate 1 → Gate 2 → Gate 3 (strict order per design doc)
-                .addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class)
-                .addFilterAfter(ipFilter, JwtTokenFilter.class)
-                .addFilterAfter(apiAuthorizationFilter, IPFilter.class)
+    @Bean
+    public FilterRegistrationBean<ApiAuthorizationFilter> apiAuthorizationFilterRegistration() {
+        return disabledRegistration(apiAuthorizationFilter);
+    }
 
-                .build();
+    @Bean
+    public FilterRegistrationBean<FusedSecurityFilter> fusedSecurityFilterRegistration() {
+        return disabledRegistration(fusedSecurityFilter);
     }
 
     @Bean
@@ -66,7 +150,29 @@ public class SecurityConfig {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setHideUserNotFoundExceptions(false); // Let UsernameNotFoundException propagate
         provider.setUserDetailsService(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder);
+        provider.setPasswordEncoder(new TimedPasswordEncoder(passwordEncoder, securityMetrics));
         return provider;
     }
-}
\ No newline at end of file
+
+    // Only the scraper account - API users cannot reach the actuator chain with their passwords
+    private AuthenticationManager scrapeAuthenticationManager() {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager();
+        if (metricsScrapeProperties.isEnabled()) {
+            users.createUser(User.withUsername(metricsScrapeProperties.getUsername())
+                    .password(metricsScrapeProperties.getPassword())
+                    .roles(SCRAPER_ROLE)
+                    .build());
+        }
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(users);
+        // Reads the {id} prefix of the stored password, e.g. {bcrypt}
+        provider.setPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        return new ProviderManager(provider);
+    }
+
+    private static <T extends Filter> FilterRegistrationBean<T> disabledRegistration(T filter) {
+        FilterRegistrationBean<T> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
@@ -0,0 +1,30 @@
+package com.tangazoletu.spotcashesb.configuration.threading;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in virtual-thread request handling (esb.threads.virtual.enabled=true, JDK 21+).
+ * Each request gets its own virtual thread, so blocking JPA/JDBC calls no longer
+ * cap concurrency at the Tomcat pool size; the Hikari pool becomes the limit.
+ * <p>
+ * Password hashing stays on the bounded platform pool in PasswordVerificationExecutor.
+ * It is CPU-bound, and admission control there matters more once request
+ * concurrency is unbounded.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(prefix = "esb.threads.virtual", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Serving requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
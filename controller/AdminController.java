@@ -1,16 +1,28 @@
 package com.tangazoletu.spotcashesb.controller;
 
+import com.tangazoletu.spotcashesb.dto.ApiUserFilter;
+import com.tangazoletu.spotcashesb.dto.ApiUserPage;
 import com.tangazoletu.spotcashesb.dto.ApiUserResponse;
+import com.tangazoletu.spotcashesb.dto.BulkPermissionRequest;
+import com.tangazoletu.spotcashesb.dto.BulkPermissionResult;
 import com.tangazoletu.spotcashesb.dto.CreateApiUserRequest;
 import com.tangazoletu.spotcashesb.dto.GrantPermissionsRequest;
 import com.tangazoletu.spotcashesb.dto.SimpleApiResponse;
+import com.tangazoletu.spotcashesb.security.authorization.ApiFunctionRegistry;
+import com.tangazoletu.spotcashesb.security.ratelimit.QuotaOverrideRegistry;
+import com.tangazoletu.spotcashesb.service.ApiUserImportService;
+import com.tangazoletu.spotcashesb.service.ApiUserListingService;
 import com.tangazoletu.spotcashesb.service.ApiUserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -20,6 +32,10 @@ import java.util.List;
 public class AdminController {
 
     private final ApiUserService apiUserService;
+    private final ApiFunctionRegistry apiFunctionRegistry;
+    private final QuotaOverrideRegistry quotaOverrideRegistry;
+    private final ApiUserImportService apiUserImportService;
+    private final ApiUserListingService apiUserListingService;
 
     @PostMapping("/users")
     public ResponseEntity<ApiUserResponse> createUser(@Valid @RequestBody CreateApiUserRequest request) {
@@ -28,11 +44,54 @@ public class AdminController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Bulk-creates users from an NDJSON or CSV body. Results stream back as NDJSON,
+     * one line per input row, followed by a summary line.
+     */
+    @PostMapping(
+        value = "/users/import",
+        consumes = {ApiUserImportService.NDJSON, ApiUserImportService.CSV},
+        produces = ApiUserImportService.NDJSON
+    )
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ApiUserImportService.Format format = request.getContentType().startsWith(ApiUserImportService.CSV)
+                ? ApiUserImportService.Format.CSV
+                : ApiUserImportService.Format.NDJSON;
+
+        log.info("Starting bulk user import ({})", format);
+        request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(ApiUserImportService.NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        apiUserImportService.importUsers(request.getReader(), format, response.getOutputStream());
+    }
+
     @GetMapping("/users")
     public ResponseEntity<List<ApiUserResponse>> getAllActiveUsers() {
         return ResponseEntity.ok(apiUserService.getAllActiveUsers());
     }
 
+    /**
+     * Keyset-paginated listing: pass the previous page's nextAfterId as afterId.
+     */
+    @GetMapping("/users/page")
+    public ResponseEntity<ApiUserPage> getUsersPage(
+            ApiUserFilter filter,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+
+        return ResponseEntity.ok(apiUserListingService.findPage(filter, afterId, limit));
+    }
+
+    @GetMapping(value = "/users/export", produces = ApiUserImportService.NDJSON)
+    public void exportUsers(ApiUserFilter filter, HttpServletResponse response) throws IOException {
+        log.info("Exporting users: {}", filter);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(ApiUserImportService.NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        apiUserListingService.export(filter, response.getOutputStream());
+    }
+
     @GetMapping("/users/{id}")
     public ResponseEntity<ApiUserResponse> getUserById(@PathVariable Long id) {
         return ResponseEntity.ok(apiUserService.getUserById(id));
@@ -55,6 +114,13 @@ public class AdminController {
         return ResponseEntity.ok(SimpleApiResponse.success("User deactivated successfully"));
     }
 
+    @PostMapping("/users/{id}/refresh")
+    public ResponseEntity<SimpleApiResponse> refreshUser(@PathVariable Long id) {
+        log.info("Refreshing cached security state for user ID: {}", id);
+        apiUserService.refreshUser(id);
+        return ResponseEntity.ok(SimpleApiResponse.success("User cache refreshed successfully"));
+    }
+
     // ---------- Permission Management ----------
 
     @PostMapping("/users/{id}/permissions")
@@ -76,4 +142,33 @@ public class AdminController {
         apiUserService.revokePermissions(id, request.getConfigIds());
         return ResponseEntity.ok(SimpleApiResponse.success("Permissions revoked successfully"));
     }
+
+    @PostMapping("/permissions/bulk")
+    public ResponseEntity<SimpleApiResponse> grantPermissionsInBulk(
+            @Valid @RequestBody BulkPermissionRequest request) {
+
+        log.info("Bulk granting {} configs", request.getConfigIds().size());
+        BulkPermissionResult result = apiUserService.grantPermissions(request);
+        return ResponseEntity.ok(SimpleApiResponse.success("Permissions granted successfully", result));
+    }
+
+    @DeleteMapping("/permissions/bulk")
+    public ResponseEntity<SimpleApiResponse> revokePermissionsInBulk(
+            @Valid @RequestBody BulkPermissionRequest request) {
+
+        log.info("Bulk revoking {} configs", request.getConfigIds().size());
+        BulkPermissionResult result = apiUserService.revokePermissions(request);
+        return ResponseEntity.ok(SimpleApiResponse.success("Permissions revoked successfully", result));
+    }
+
+    // ---------- API Config Registry ----------
+
+    @PostMapping("/configs/refresh")
+    public ResponseEntity<SimpleApiResponse> refreshConfigs() {
+        log.info("Refreshing API function registry and quota overrides");
+        apiFunctionRegistry.refresh();
+        quotaOverrideRegistry.refresh();
+        return ResponseEntity.ok(SimpleApiResponse.success(
+                "API function registry refreshed", apiFunctionRegistry.size()));
+    }
 }
\ No newline at end of file
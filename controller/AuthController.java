@@ -2,7 +2,9 @@ package com.tangazoletu.spotcashesb.controller;
 
 import com.tangazoletu.spotcashesb.dto.AuthRequest;
 import com.tangazoletu.spotcashesb.dto.AuthResponse;
+import com.tangazoletu.spotcashesb.security.ip.ClientIpResolver;
 import com.tangazoletu.spotcashesb.service.AuthenticationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +20,7 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthenticationService authenticationService;
+    private final ClientIpResolver clientIpResolver;
 
     @PostMapping(
         value = "/authenticate",
@@ -26,11 +29,14 @@ public class AuthController {
     )
     public ResponseEntity<AuthResponse> authenticate(
             @Valid @RequestBody AuthRequest request,
+            HttpServletRequest httpServletRequest,
             HttpServletResponse httpServletResponse) {
 
         log.info("Authentication attempt for user: {}", request.getUsername());
-        AuthResponse response = authenticationService.authenticate(request, httpServletResponse);
-        return ResponseEntity.ok(response);
+        AuthResponse response = authenticationService.authenticate(
+                request, clientIpResolver.resolveTrusted(httpServletRequest), httpServletResponse);
+        // ResponseEntity.ok() would overwrite the 401/503 the service set
+        return ResponseEntity.status(httpServletResponse.getStatus()).body(response);
     }
 
     @PostMapping("/refresh")
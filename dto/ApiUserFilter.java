@@ -0,0 +1,24 @@
+package com.tangazoletu.spotcashesb.dto;
+
+import com.tangazoletu.spotcashesb.entity.enums.ApiUserStatus;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.util.Date;
+
+/**
+ * Optional filters for the admin user listing; null fields are not applied.
+ */
+@Data
+public class ApiUserFilter {
+
+    private ApiUserStatus status;
+
+    private String applicationName;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Date createdFrom;       // inclusive
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Date createdTo;         // exclusive
+}
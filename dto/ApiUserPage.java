@@ -0,0 +1,17 @@
+package com.tangazoletu.spotcashesb.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ApiUserPage {
+    private List<ApiUserResponse> users;
+
+    // Pass as afterId to get the next page; absent on the last page
+    private Long nextAfterId;
+}
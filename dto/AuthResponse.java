@@ -25,9 +25,18 @@ public class AuthResponse {
         return response;
     }
 
+    public static AuthResponse failure(String responseCode, String message) {
+        AuthResponse response = new AuthResponse();
+        response.setResponseCode(responseCode);
+        response.setResponseMessage(message);
+        return response;
+    }
+
     public static class ResponseCodes {
         public static final String SUCCESS = "00";
         public static final String FAILED  = "01";
+        public static final String BUSY    = "02";   // Retry after the Retry-After delay
+        public static final String TOO_MANY_ATTEMPTS = "03";   // Throttled after repeated failures
 
         private ResponseCodes() {}
     }
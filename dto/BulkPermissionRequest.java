@@ -0,0 +1,29 @@
+package com.tangazoletu.spotcashesb.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Grants or revokes {@code configIds} for a set of users, selected either
+ * explicitly by ID or as every user of one application.
+ */
+@Data
+public class BulkPermissionRequest {
+
+    private List<Long> userIds;
+
+    private String applicationName;
+
+    @NotEmpty(message = "At least one config ID is required")
+    private List<Long> configIds;
+
+    @AssertTrue(message = "Provide exactly one of userIds or applicationName")
+    public boolean isSingleSelector() {
+        boolean byUsers = userIds != null && !userIds.isEmpty();
+        boolean byApplication = applicationName != null && !applicationName.isBlank();
+        return byUsers != byApplication;
+    }
+}
@@ -0,0 +1,11 @@
+package com.tangazoletu.spotcashesb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BulkPermissionResult {
+    private int usersAffected;          // Users whose permissions actually changed (revoke) or were selected (grant)
+    private int permissionsAffected;    // Rows inserted or deleted
+}
@@ -0,0 +1,24 @@
+package com.tangazoletu.spotcashesb.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One line of the bulk import response stream.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportRowResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private int line;           // 1-based line in the uploaded body
+    private String username;
+    private String status;      // CREATED or FAILED
+    private Long id;
+    private Integer permissionsGranted;
+    private String error;
+}
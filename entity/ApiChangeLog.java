@@ -0,0 +1,53 @@
+package com.tangazoletu.spotcashesb.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * One row per admin change to a user, written in the same transaction as the
+ * change. Other nodes poll this table to invalidate their in-memory security state.
+ */
+@Data
+@Entity
+@Table(name = "API_CHANGE_LOG",
+        indexes = @Index(name = "IDX_API_CHANGE_LOG_DATE", columnList = "DATE_CREATED")
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ApiChangeLog {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "API_CHANGE_LOG_SEQ")
+    @SequenceGenerator(name = "API_CHANGE_LOG_SEQ", sequenceName = "API_CHANGE_LOG_SEQ", allocationSize = 1)
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "API_USER_ID", nullable = false)
+    private Long apiUserId;
+
+    @Column(name = "USERNAME", nullable = false, length = 50)
+    private String username;
+
+    @Column(name = "CHANGE_TYPE", nullable = false, length = 30)
+    private String changeType;
+
+    // Node that made the change - it has already applied it locally
+    @Column(name = "NODE_ID", nullable = false, length = 100)
+    private String nodeId;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "DATE_CREATED", nullable = false, updatable = false)
+    private Date dateCreated;
+
+    @PrePersist
+    protected void onCreate() {
+        if (dateCreated == null) {
+            dateCreated = new Date();
+        }
+    }
+}
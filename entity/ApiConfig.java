@@ -78,6 +78,13 @@ public class ApiConfig {
     @Column(name = "COMMENT")
     private String comment;
 
+    // Default per-client quota for this function; null = unlimited
+    @Column(name = "RATE_LIMIT_PER_SECOND")
+    private Integer rateLimitPerSecond;
+
+    @Column(name = "RATE_LIMIT_BURST")   // null = one second's worth
+    private Integer rateLimitBurst;
+
     // metadata
     @Temporal(TemporalType.TIMESTAMP)
     @Column(name = "DATE_CREATED")
@@ -26,4 +26,11 @@ public class ApiUserPermission {
 
     @Column(name = "API_CONFIG_ID", nullable = false)
     private Long apiConfigId;
+
+    // Per-client override of the function's quota; null = use the API_CONFIGS default
+    @Column(name = "RATE_LIMIT_PER_SECOND")
+    private Integer rateLimitPerSecond;
+
+    @Column(name = "RATE_LIMIT_BURST")
+    private Integer rateLimitBurst;
 }
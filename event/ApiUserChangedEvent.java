@@ -0,0 +1,40 @@
+package com.tangazoletu.spotcashesb.event;
+
+import lombok.Getter;
+
+/**
+ * Published by ApiUserServiceImpl whenever an admin operation changes a user's
+ * credentials, status, whitelist or permissions. In-memory security state
+ * (cached principals etc.) listens to this to stay in step with the database.
+ * Bulk operations publish one {@link ApiUsersChangedEvent} instead.
+ */
+@Getter
+public class ApiUserChangedEvent {
+
+    private final Long userId;
+    private final String username;
+    private final ChangeType changeType;
+    private final long changedAt;   // epoch millis
+
+    public ApiUserChangedEvent(Long userId, String username, ChangeType changeType) {
+        this(userId, username, changeType, System.currentTimeMillis());
+    }
+
+    // For changes replayed from another node, stamped with when they were recorded
+    public ApiUserChangedEvent(Long userId, String username, ChangeType changeType, long changedAt) {
+        this.userId = userId;
+        this.username = username;
+        this.changeType = changeType;
+        this.changedAt = changedAt;
+    }
+
+    public enum ChangeType {
+        UPDATED,
+        PASSWORD_CHANGED,
+        DEACTIVATED,
+        PERMISSIONS_GRANTED,
+        PERMISSIONS_REVOKED,
+        REFRESHED,
+        LOCKED              // Set by login throttling after sustained bad-password attempts
+    }
+}
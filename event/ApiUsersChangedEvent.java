@@ -0,0 +1,40 @@
+package com.tangazoletu.spotcashesb.event;
+
+import com.tangazoletu.spotcashesb.event.ApiUserChangedEvent.ChangeType;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The same change applied to many users at once - a bulk grant or revoke, or a page of
+ * change-log rows replayed from another node. Listeners update their in-memory state
+ * once per batch instead of once per user, so a change to an application with thousands
+ * of users costs one table copy rather than thousands.
+ */
+@Getter
+public class ApiUsersChangedEvent {
+
+    private final List<Long> userIds;
+    private final List<String> usernames;
+    private final ChangeType changeType;
+    private final long changedAt;   // epoch millis; the latest change in the batch
+
+    public ApiUsersChangedEvent(List<Long> userIds, List<String> usernames, ChangeType changeType) {
+        this(userIds, usernames, changeType, System.currentTimeMillis());
+    }
+
+    public ApiUsersChangedEvent(List<Long> userIds, List<String> usernames, ChangeType changeType,
+                                long changedAt) {
+        this.userIds = List.copyOf(userIds);
+        this.usernames = List.copyOf(usernames);
+        this.changeType = changeType;
+        this.changedAt = changedAt;
+    }
+
+    /**
+     * @return the user IDs as primitives
+     */
+    public long[] userIdArray() {
+        return userIds.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,38 @@
+package com.tangazoletu.spotcashesb.repositories;
+
+import com.tangazoletu.spotcashesb.entity.ApiChangeLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface ApiChangeLogRepository extends JpaRepository<ApiChangeLog, Long> {
+
+    @Query("SELECT MAX(c.id) FROM ApiChangeLog c")
+    Long findMaxId();
+
+    // Rows past the high-water mark, keyset-paged by ID
+    @Query("SELECT c FROM ApiChangeLog c WHERE c.id > :afterId ORDER BY c.id")
+    List<ApiChangeLog> findChangesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Recent rows at or below the mark: an ID allocated before a commit that landed later
+    // (sequence order is not commit order). Keyset-paged by ID from afterId
+    @Query("SELECT c FROM ApiChangeLog c WHERE c.dateCreated >= :since AND c.id > :afterId AND c.id <= :upToId "
+            + "ORDER BY c.id")
+    List<ApiChangeLog> findRecentChanges(@Param("since") Date since,
+                                         @Param("afterId") Long afterId,
+                                         @Param("upToId") Long upToId,
+                                         Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ApiChangeLog c WHERE c.dateCreated < :before")
+    int deleteOlderThan(@Param("before") Date before);
+}
@@ -1,11 +1,13 @@
 package com.tangazoletu.spotcashesb.repositories;
 
 import com.tangazoletu.spotcashesb.entity.ApiConfig;
+import com.tangazoletu.spotcashesb.repositories.projection.ApiFunctionView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +25,18 @@ public interface ApiConfigRepository extends JpaRepository<ApiConfig, Long> {
     @Query("SELECT c FROM ApiConfig c WHERE c.status = 1")
     List<ApiConfig> findAllActive();
 
+    @Query("SELECT c.id FROM ApiConfig c")
+    List<Long> findAllIds();
+
+    @Query("SELECT MAX(c.dateUpdated) FROM ApiConfig c")
+    Date findMaxDateUpdated();
+
+    // Same rows as findAllActive() but without hydrating the entity (skips the CLOBs)
+    @Query("SELECT c.id AS id, c.functionName AS functionName, c.status AS status, " +
+           "c.rateLimitPerSecond AS rateLimitPerSecond, c.rateLimitBurst AS rateLimitBurst " +
+           "FROM ApiConfig c WHERE c.status = 1")
+    List<ApiFunctionView> findAllActiveFunctions();
+
     @Query("SELECT c FROM ApiConfig c WHERE c.id IN :ids")
     List<ApiConfig> findByIdIn(@Param("ids") List<Long> ids);
 
@@ -1,6 +1,7 @@
 package com.tangazoletu.spotcashesb.repositories;
 
 import com.tangazoletu.spotcashesb.entity.ApiUserPermission;
+import com.tangazoletu.spotcashesb.repositories.projection.QuotaOverrideView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -25,6 +26,12 @@ public interface ApiUserPermissionRepository extends JpaRepository<ApiUserPermis
     @Query("SELECT p.apiConfigId FROM ApiUserPermission p WHERE p.apiUserId = :userId")
     List<Long> findConfigIdsByUserId(@Param("userId") Long userId);
 
+    // Only the permissions that override the function's default quota
+    @Query("SELECT p.apiUserId AS apiUserId, p.apiConfigId AS apiConfigId, " +
+           "p.rateLimitPerSecond AS rateLimitPerSecond, p.rateLimitBurst AS rateLimitBurst " +
+           "FROM ApiUserPermission p WHERE p.rateLimitPerSecond IS NOT NULL")
+    List<QuotaOverrideView> findQuotaOverrides();
+
     // Get all user IDs for a config
     @Query("SELECT p.apiUserId FROM ApiUserPermission p WHERE p.apiConfigId = :configId")
     List<Long> findUserIdsByConfigId(@Param("configId") Long configId);
@@ -50,12 +57,73 @@ public interface ApiUserPermissionRepository extends JpaRepository<ApiUserPermis
     boolean userHasAccessToFunction(@Param("userId") Long userId,
                                     @Param("functionName") String functionName);
 
-    // Bulk insert helper (for batch operations)
+    // Set-based grant for one user: skips configs that don't exist or are already granted
+    @Query(value = """
+        INSERT INTO API_USER_PERMISSION (ID, API_USER_ID, API_CONFIG_ID)
+        SELECT API_USER_PERMISSION_SEQ.NEXTVAL, :userId, c.ID FROM API_CONFIGS c
+        WHERE c.ID IN :configIds
+        AND NOT EXISTS (
+            SELECT 1 FROM API_USER_PERMISSION p
+            WHERE p.API_USER_ID = :userId
+            AND p.API_CONFIG_ID = c.ID
+        )
+        """, nativeQuery = true)
+    @Modifying
+    int grantBatchPermissions(@Param("userId") Long userId,
+                              @Param("configIds") List<Long> configIds);
+
+    // Users x configs in one statement
     @Query(value = """
-        INSERT INTO API_USER_PERMISSION (API_USER_ID, API_CONFIG_ID)
-        SELECT :userId, c.ID FROM API_CONFIGS c WHERE c.ID IN :configIds
+        INSERT INTO API_USER_PERMISSION (ID, API_USER_ID, API_CONFIG_ID)
+        SELECT API_USER_PERMISSION_SEQ.NEXTVAL, u.ID, c.ID
+        FROM API_USER u CROSS JOIN API_CONFIGS c
+        WHERE u.ID IN :userIds
+        AND c.ID IN :configIds
+        AND NOT EXISTS (
+            SELECT 1 FROM API_USER_PERMISSION p
+            WHERE p.API_USER_ID = u.ID
+            AND p.API_CONFIG_ID = c.ID
+        )
         """, nativeQuery = true)
     @Modifying
-    void grantBatchPermissions(@Param("userId") Long userId,
-                               @Param("configIds") List<Long> configIds);
+    int grantToUsers(@Param("userIds") List<Long> userIds,
+                     @Param("configIds") List<Long> configIds);
+
+    @Query(value = """
+        INSERT INTO API_USER_PERMISSION (ID, API_USER_ID, API_CONFIG_ID)
+        SELECT API_USER_PERMISSION_SEQ.NEXTVAL, u.ID, c.ID
+        FROM API_USER u CROSS JOIN API_CONFIGS c
+        WHERE u.APPLICATION_NAME = :applicationName
+        AND c.ID IN :configIds
+        AND NOT EXISTS (
+            SELECT 1 FROM API_USER_PERMISSION p
+            WHERE p.API_USER_ID = u.ID
+            AND p.API_CONFIG_ID = c.ID
+        )
+        """, nativeQuery = true)
+    @Modifying
+    int grantToApplication(@Param("applicationName") String applicationName,
+                           @Param("configIds") List<Long> configIds);
+
+    @Modifying
+    @Query("DELETE FROM ApiUserPermission p WHERE p.apiUserId IN :userIds AND p.apiConfigId IN :configIds")
+    int revokeFromUsers(@Param("userIds") List<Long> userIds,
+                        @Param("configIds") List<Long> configIds);
+
+    @Modifying
+    @Query("DELETE FROM ApiUserPermission p WHERE p.apiConfigId IN :configIds AND p.apiUserId IN " +
+           "(SELECT u.id FROM ApiUser u WHERE u.applicationName = :applicationName)")
+    int revokeFromApplication(@Param("applicationName") String applicationName,
+                              @Param("configIds") List<Long> configIds);
+
+    // Users that hold at least one of the configs - the ones a revoke actually changes
+    @Query("SELECT DISTINCT p.apiUserId FROM ApiUserPermission p " +
+           "WHERE p.apiUserId IN :userIds AND p.apiConfigId IN :configIds")
+    List<Long> findUserIdsHoldingAny(@Param("userIds") List<Long> userIds,
+                                     @Param("configIds") List<Long> configIds);
+
+    @Query("SELECT DISTINCT p.apiUserId FROM ApiUserPermission p WHERE p.apiConfigId IN :configIds " +
+           "AND p.apiUserId IN (SELECT u.id FROM ApiUser u WHERE u.applicationName = :applicationName)")
+    List<Long> findApplicationUserIdsHoldingAny(@Param("applicationName") String applicationName,
+                                                @Param("configIds") List<Long> configIds);
 }
\ No newline at end of file
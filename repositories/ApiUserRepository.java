@@ -2,12 +2,16 @@ package com.tangazoletu.spotcashesb.repositories;
 
 import com.tangazoletu.spotcashesb.entity.ApiUser;
 import com.tangazoletu.spotcashesb.entity.enums.ApiUserStatus;
+import com.tangazoletu.spotcashesb.repositories.projection.ApiUserChangeView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,10 +21,32 @@ public interface ApiUserRepository extends JpaRepository<ApiUser, Long> {
 
     boolean existsByUsername(String username);
 
+    @Query("SELECT u.username FROM ApiUser u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
     List<ApiUser> findByStatus(ApiUserStatus status);
 
     List<ApiUser> findByApplicationName(String applicationName);
 
+    @Query("SELECT u.id AS id, u.username AS username, u.dateUpdated AS dateUpdated " +
+           "FROM ApiUser u WHERE u.id IN :ids")
+    List<ApiUserChangeView> findChangeViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.dateUpdated AS dateUpdated " +
+           "FROM ApiUser u WHERE u.applicationName = :applicationName")
+    List<ApiUserChangeView> findChangeViewsByApplicationName(@Param("applicationName") String applicationName);
+
+    @Query("SELECT MAX(u.dateUpdated) FROM ApiUser u")
+    Date findMaxDateUpdated();
+
+    // Keyset over (DATE_UPDATED, ID) so rows sharing a timestamp are never skipped or repeated
+    @Query("SELECT u.id AS id, u.username AS username, u.dateUpdated AS dateUpdated FROM ApiUser u " +
+           "WHERE u.dateUpdated > :since OR (u.dateUpdated = :since AND u.id > :afterId) " +
+           "ORDER BY u.dateUpdated, u.id")
+    List<ApiUserChangeView> findUpdatedAfter(@Param("since") Date since,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
     @Query("SELECT u FROM ApiUser u WHERE u.status = :status AND u.dateCreated >= :since")
     List<ApiUser> findActiveUsersSince(@Param("status") ApiUserStatus status,
                                        @Param("since") LocalDateTime since);
@@ -0,0 +1,17 @@
+package com.tangazoletu.spotcashesb.repositories.projection;
+
+/**
+ * Lightweight view of an ApiConfig row - no CLOB columns are selected.
+ */
+public interface ApiFunctionView {
+
+    Long getId();
+
+    String getFunctionName();
+
+    Integer getStatus();
+
+    Integer getRateLimitPerSecond();
+
+    Integer getRateLimitBurst();
+}
@@ -0,0 +1,15 @@
+package com.tangazoletu.spotcashesb.repositories.projection;
+
+import java.util.Date;
+
+/**
+ * The columns needed to notice that a user row changed.
+ */
+public interface ApiUserChangeView {
+
+    Long getId();
+
+    String getUsername();
+
+    Date getDateUpdated();
+}
@@ -0,0 +1,15 @@
+package com.tangazoletu.spotcashesb.repositories.projection;
+
+/**
+ * A permission row that carries its own rate limit.
+ */
+public interface QuotaOverrideView {
+
+    Long getApiUserId();
+
+    Long getApiConfigId();
+
+    Integer getRateLimitPerSecond();
+
+    Integer getRateLimitBurst();
+}
@@ -0,0 +1,35 @@
+package com.tangazoletu.spotcashesb.security.authorization;
+
+import com.tangazoletu.spotcashesb.security.userdetails.SecurityUser;
+import lombok.Getter;
+
+/**
+ * Combined outcome of the account, IP whitelist and function checks. Immutable, so
+ * the IP-independent part can be shared by every request that hits the same
+ * {@link AccessDecisionCache} entry; IP_DENIED is only ever built per request.
+ */
+@Getter
+public final class AccessDecision {
+
+    private final Verdict verdict;
+    private final SecurityUser principal;
+    private final ApiFunction function;   // null unless the function exists in the registry
+
+    public AccessDecision(Verdict verdict, SecurityUser principal, ApiFunction function) {
+        this.verdict = verdict;
+        this.principal = principal;
+        this.function = function;
+    }
+
+    public boolean isAllowed() {
+        return verdict == Verdict.ALLOWED;
+    }
+
+    public enum Verdict {
+        ALLOWED,
+        INACTIVE_ACCOUNT,   // Deactivated, suspended or locked - treated as unauthenticated
+        IP_DENIED,
+        UNKNOWN_FUNCTION,
+        FUNCTION_DENIED
+    }
+}
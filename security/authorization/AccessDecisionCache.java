@@ -0,0 +1,110 @@
+package com.tangazoletu.spotcashesb.security.authorization;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tangazoletu.spotcashesb.configuration.security.SecurityCacheProperties;
+import com.tangazoletu.spotcashesb.event.ApiUserChangedEvent;
+import com.tangazoletu.spotcashesb.event.ApiUsersChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * (userId, functionName) -> {@link AccessDecision}. The client IP is deliberately not
+ * part of the key: it is client-controlled, so keying on it would let one token fill
+ * the cache. Callers check the principal's whitelist per request. Every entry is stamped
+ * with the epoch and registry version it was computed under; any user change moves
+ * the epoch and a changed function snapshot moves the version, so one counter
+ * comparison retires every older entry. Admin changes are rare enough that a global
+ * epoch beats tracking entries per user.
+ */
+@Component
+@Slf4j
+public class AccessDecisionCache implements MeterBinder {
+
+    private final ApiFunctionRegistry apiFunctionRegistry;
+
+    // null when decision caching is disabled
+    private final Cache<DecisionKey, Entry> cache;
+
+    private final AtomicLong epoch = new AtomicLong();
+
+    public AccessDecisionCache(ApiFunctionRegistry apiFunctionRegistry,
+                               SecurityCacheProperties cacheProperties) {
+        this.apiFunctionRegistry = apiFunctionRegistry;
+
+        SecurityCacheProperties.Decision config = cacheProperties.getDecision();
+        this.cache = config.isEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(config.getMaximumSize())
+                        .expireAfterWrite(Duration.ofSeconds(config.getTtlSeconds()))
+                        .recordStats()
+                        .build()
+                : null;
+    }
+
+    /**
+     * @param loader computes the decision on a miss; {@code null} and unknown-function results
+     *               are returned but not cached
+     */
+    public AccessDecision get(long userId, String functionName, Supplier<AccessDecision> loader) {
+        if (cache == null) {
+            return loader.get();
+        }
+
+        DecisionKey key = new DecisionKey(userId, functionName);
+        // Read the stamps before loading - a change that lands mid-load leaves the entry already stale
+        long currentEpoch = epoch.get();
+        long registryVersion = apiFunctionRegistry.getVersion();
+
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.epoch() == currentEpoch && entry.registryVersion() == registryVersion) {
+            return entry.decision();
+        }
+
+        AccessDecision decision = loader.get();
+        // Unknown names come straight from the URL - caching them would let a client fill the cache
+        if (decision != null && decision.getVerdict() != AccessDecision.Verdict.UNKNOWN_FUNCTION) {
+            cache.put(key, new Entry(decision, currentEpoch, registryVersion));
+        }
+        return decision;
+    }
+
+    // Fires after the admin transaction commits, like the principal cache eviction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApiUserChanged(ApiUserChangedEvent event) {
+        if (cache != null) {
+            epoch.incrementAndGet();
+            log.debug("Access decisions invalidated by {} of '{}'", event.getChangeType(), event.getUsername());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApiUsersChanged(ApiUsersChangedEvent event) {
+        if (cache != null) {
+            epoch.incrementAndGet();
+            log.debug("Access decisions invalidated by {} of {} users",
+                    event.getChangeType(), event.getUsernames().size());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "accessDecisions");
+        }
+    }
+
+    private record DecisionKey(long userId, String functionName) {
+    }
+
+    private record Entry(AccessDecision decision, long epoch, long registryVersion) {
+    }
+}
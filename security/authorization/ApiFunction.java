@@ -0,0 +1,29 @@
+package com.tangazoletu.spotcashesb.security.authorization;
+
+import com.tangazoletu.spotcashesb.security.ratelimit.Quota;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Immutable registry entry: the bits of an ApiConfig the authorization gate needs.
+ */
+@Getter
+@EqualsAndHashCode
+public final class ApiFunction {
+
+    private final long configId;
+    private final String functionName;
+    private final int status;   // 1=Active, 0=Inactive
+    private final Quota quota;  // null = unlimited
+
+    public ApiFunction(long configId, String functionName, int status, Quota quota) {
+        this.configId = configId;
+        this.functionName = functionName;
+        this.status = status;
+        this.quota = quota;
+    }
+
+    public boolean isActive() {
+        return status == 1;
+    }
+}
@@ -0,0 +1,111 @@
+package com.tangazoletu.spotcashesb.security.authorization;
+
+import com.tangazoletu.spotcashesb.repositories.ApiConfigRepository;
+import com.tangazoletu.spotcashesb.repositories.projection.ApiFunctionView;
+import com.tangazoletu.spotcashesb.security.ratelimit.Quota;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory functionName -> ApiFunction snapshot of the active API_CONFIGS rows.
+ * The map is immutable and replaced wholesale on refresh (copy-on-write), so
+ * lookups on the request path are a single lock-free hash lookup with no DB access.
+ */
+@Component
+@Slf4j
+public class ApiFunctionRegistry implements MeterBinder {
+
+    private final ApiConfigRepository apiConfigRepository;
+
+    // Read-only so it can be served by a replica; programmatic because init() and the
+    // scheduler call refresh() on this, bypassing any @Transactional proxy
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Map<String, ApiFunction> functions = Map.of();
+
+    // Bumped only when a refresh actually changes the snapshot; memoized decisions compare against it
+    private final AtomicLong version = new AtomicLong();
+
+    public ApiFunctionRegistry(ApiConfigRepository apiConfigRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.apiConfigRepository = apiConfigRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    // Picks up configs edited directly in the DB; admin changes can also call refresh()
+    @Scheduled(fixedDelayString = "${esb.security.function-registry.refresh-interval-ms:60000}",
+               initialDelayString = "${esb.security.function-registry.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Rebuilds the snapshot from the database. On failure the previous snapshot is kept.
+     */
+    public void refresh() {
+        try {
+            List<ApiFunctionView> rows = readOnlyTransaction.execute(
+                    status -> apiConfigRepository.findAllActiveFunctions());
+
+            Map<String, ApiFunction> snapshot = new HashMap<>(rows.size() * 2);
+            for (ApiFunctionView row : rows) {
+                ApiFunction function = new ApiFunction(row.getId(), row.getFunctionName(), row.getStatus(),
+                        Quota.of(row.getRateLimitPerSecond(), row.getRateLimitBurst()));
+                ApiFunction existing = snapshot.putIfAbsent(row.getFunctionName(), function);
+                if (existing != null) {
+                    log.warn("Duplicate active API function '{}' (config IDs {} and {}), keeping {}",
+                            row.getFunctionName(), existing.getConfigId(), row.getId(), existing.getConfigId());
+                }
+            }
+
+            if (!snapshot.equals(functions)) {
+                functions = Map.copyOf(snapshot);
+                version.incrementAndGet();
+            }
+            log.info("API function registry refreshed: {} active functions", snapshot.size());
+
+        } catch (Exception e) {
+            log.error("Failed to refresh API function registry, keeping previous snapshot: {}",
+                    e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the active function, or {@code null} if no active config has this name
+     */
+    public ApiFunction find(String functionName) {
+        return functions.get(functionName);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public int size() {
+        return functions.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("esb.security.function.registry.size", this, ApiFunctionRegistry::size)
+                .register(registry);
+    }
+}
@@ -0,0 +1,293 @@
+package com.tangazoletu.spotcashesb.security.cluster;
+
+import com.tangazoletu.spotcashesb.configuration.security.ClusterSyncProperties;
+import com.tangazoletu.spotcashesb.configuration.security.JwtProperties;
+import com.tangazoletu.spotcashesb.entity.ApiChangeLog;
+import com.tangazoletu.spotcashesb.event.ApiUserChangedEvent.ChangeType;
+import com.tangazoletu.spotcashesb.event.ApiUsersChangedEvent;
+import com.tangazoletu.spotcashesb.repositories.ApiChangeLogRepository;
+import com.tangazoletu.spotcashesb.repositories.ApiConfigRepository;
+import com.tangazoletu.spotcashesb.repositories.ApiUserRepository;
+import com.tangazoletu.spotcashesb.repositories.projection.ApiUserChangeView;
+import com.tangazoletu.spotcashesb.security.authorization.ApiFunctionRegistry;
+import com.tangazoletu.spotcashesb.security.jwt.PermissionVersionRegistry;
+import com.tangazoletu.spotcashesb.security.jwt.TokenRevocationRegistry;
+import com.tangazoletu.spotcashesb.security.ratelimit.QuotaOverrideRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Pulls changes made on other nodes and replays them locally as
+ * {@link ApiUsersChangedEvent}s, one per change type per page, so the principal cache, permission versions,
+ * token revocations and function/quota registries converge without a broker.
+ * <p>
+ * Three sources, each read as a delta from a high-water mark:
+ * <ul>
+ *   <li>API_CHANGE_LOG - typed changes written by ApiUserServiceImpl on any node</li>
+ *   <li>API_USER.DATE_UPDATED - catches rows edited outside the admin API (replayed as UPDATED)</li>
+ *   <li>API_CONFIGS.DATE_UPDATED - any movement reloads the function and quota registries</li>
+ * </ul>
+ * Replaying is idempotent: a change seen twice only evicts twice.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "esb.security.cluster-sync", name = "enabled", havingValue = "true")
+public class ClusterChangePoller {
+
+    private final ClusterSyncProperties properties;
+    private final ApiChangeLogRepository changeLogRepository;
+    private final ApiUserRepository apiUserRepository;
+    private final ApiConfigRepository apiConfigRepository;
+    private final ApiFunctionRegistry apiFunctionRegistry;
+    private final QuotaOverrideRegistry quotaOverrideRegistry;
+    private final PermissionVersionRegistry permissionVersionRegistry;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final JwtProperties jwtProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    // Change log: highest ID applied, plus recently seen IDs (ID -> dateCreated millis) for the overlap window
+    private long changeLogMark;
+    private final Map<Long, Long> recentlySeen = new HashMap<>();
+
+    // API_USER keyset position
+    private Date userMark;
+    private long userMarkId;
+
+    private Date configMark;
+
+    private Counter changeLogApplied;
+    private Counter userRowsApplied;
+    private Counter configReloads;
+
+    @PostConstruct
+    void init() {
+        // Start from "now" - this node's caches are empty, there is nothing older to invalidate
+        Long maxId = changeLogRepository.findMaxId();
+        changeLogMark = maxId != null ? maxId : 0L;
+        seedTokenRegistries();
+        Date maxUserUpdate = apiUserRepository.findMaxDateUpdated();
+        userMark = maxUserUpdate != null ? maxUserUpdate : new Date(0);
+        userMarkId = Long.MAX_VALUE;   // Everything at the current mark is already reflected
+        configMark = apiConfigRepository.findMaxDateUpdated();
+
+        changeLogApplied = appliedCounter("change_log");
+        userRowsApplied = appliedCounter("user_date_updated");
+        configReloads = appliedCounter("config_date_updated");
+
+        log.info("Cluster sync enabled on node '{}' (poll every {} ms, change log from ID {})",
+                properties.getNodeId(), properties.getPollIntervalMs(), changeLogMark);
+    }
+
+    /**
+     * Caches start empty, but tokens issued before this node started are still live. Replays
+     * every change within one token lifetime into the version and revocation registries so
+     * those tokens are judged as they would be on a node that never restarted.
+     */
+    private void seedTokenRegistries() {
+        Date since = new Date(System.currentTimeMillis()
+                - TimeUnit.SECONDS.toMillis(jwtProperties.getAccessTokenLifetime()));
+        PageRequest page = PageRequest.of(0, properties.getBatchSize());
+        // userId -> latest change, applied in one bulk update per registry
+        Map<Long, Long> versions = new HashMap<>();
+        Map<Long, Long> revocations = new HashMap<>();
+        long afterId = -1L;
+        int seeded = 0;
+        List<ApiChangeLog> rows;
+        do {
+            rows = changeLogRepository.findRecentChanges(since, afterId, changeLogMark, page);
+            for (ApiChangeLog row : rows) {
+                afterId = row.getId();
+                if (row.getApiUserId() == null) {
+                    continue;
+                }
+                long changedAt = row.getDateCreated().getTime();
+                versions.merge(row.getApiUserId(), changedAt, Math::max);
+                if (TokenRevocationRegistry.isRevoking(parseChangeType(row.getChangeType()))) {
+                    revocations.merge(row.getApiUserId(), changedAt, Math::max);
+                }
+                seeded++;
+            }
+        } while (rows.size() == properties.getBatchSize());
+
+        permissionVersionRegistry.recordChanges(keys(versions), values(versions));
+        tokenRevocationRegistry.revokeBefore(keys(revocations), values(revocations));
+        log.info("Seeded token registries from {} change log rows since {}", seeded, since);
+    }
+
+    @Scheduled(fixedDelayString = "${esb.security.cluster-sync.poll-interval-ms:5000}",
+               initialDelayString = "${esb.security.cluster-sync.poll-interval-ms:5000}")
+    public synchronized void poll() {
+        try {
+            boolean permissionsChanged = pollChangeLog();
+            pollUpdatedUsers();
+            boolean configsChanged = pollConfigs();
+
+            if (configsChanged) {
+                apiFunctionRegistry.refresh();
+            }
+            if (configsChanged || permissionsChanged) {
+                quotaOverrideRegistry.refresh();
+            }
+        } catch (Exception e) {
+            // Marks only advance past rows that were applied - the next poll resumes from there
+            log.error("Cluster change poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeChangeLog() {
+        Date before = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(properties.getRetentionHours()));
+        try {
+            int deleted = changeLogRepository.deleteOlderThan(before);
+            if (deleted > 0) {
+                log.info("Purged {} change log rows older than {}", deleted, before);
+            }
+        } catch (Exception e) {
+            log.warn("Change log purge failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return true if any remote change touched permissions
+     */
+    private boolean pollChangeLog() {
+        long now = System.currentTimeMillis();
+        long overlapStart = now - TimeUnit.SECONDS.toMillis(properties.getOverlapSeconds());
+        recentlySeen.values().removeIf(createdAt -> createdAt < overlapStart);
+
+        boolean permissionsChanged = false;
+        PageRequest page = PageRequest.of(0, properties.getBatchSize());
+
+        // Overlap window below the mark, for late commits; seeks past the last ID so a
+        // window full of already-seen rows can't hide the rest
+        Date since = new Date(overlapStart);
+        long upToId = changeLogMark;
+        long afterId = -1L;
+        List<ApiChangeLog> rows;
+        do {
+            rows = changeLogRepository.findRecentChanges(since, afterId, upToId, page);
+            if (!rows.isEmpty()) {
+                afterId = rows.get(rows.size() - 1).getId();
+            }
+            permissionsChanged |= replay(rows);
+        } while (rows.size() == properties.getBatchSize());
+
+        // New rows past the mark, independent of how many overlap rows there are
+        do {
+            rows = changeLogRepository.findChangesAfter(changeLogMark, page);
+            if (!rows.isEmpty()) {
+                changeLogMark = rows.get(rows.size() - 1).getId();
+            }
+            permissionsChanged |= replay(rows);
+        } while (rows.size() == properties.getBatchSize());
+
+        return permissionsChanged;
+    }
+
+    /**
+     * Replays a page of change-log rows, skipping those already applied or written by this
+     * node. Rows are grouped by change type into one batched event each, so a bulk change
+     * made on another node is applied here with one table copy, as it was there.
+     *
+     * @return true if any replayed row touched permissions
+     */
+    private boolean replay(List<ApiChangeLog> rows) {
+        Map<ChangeType, List<ApiChangeLog>> byType = new EnumMap<>(ChangeType.class);
+        for (ApiChangeLog row : rows) {
+            if (recentlySeen.putIfAbsent(row.getId(), row.getDateCreated().getTime()) == null
+                    && !properties.getNodeId().equals(row.getNodeId())) {
+                byType.computeIfAbsent(parseChangeType(row.getChangeType()), type -> new ArrayList<>()).add(row);
+            }
+        }
+
+        boolean permissionsChanged = false;
+        for (Map.Entry<ChangeType, List<ApiChangeLog>> batch : byType.entrySet()) {
+            List<ApiChangeLog> batchRows = batch.getValue();
+            eventPublisher.publishEvent(new ApiUsersChangedEvent(
+                    batchRows.stream().map(ApiChangeLog::getApiUserId).filter(Objects::nonNull)
+                            .collect(Collectors.toList()),
+                    batchRows.stream().map(ApiChangeLog::getUsername).filter(Objects::nonNull)
+                            .collect(Collectors.toList()),
+                    batch.getKey(),
+                    batchRows.stream().mapToLong(row -> row.getDateCreated().getTime()).max().orElse(0L)));
+            changeLogApplied.increment(batchRows.size());
+            permissionsChanged |= batch.getKey() == ChangeType.PERMISSIONS_GRANTED
+                    || batch.getKey() == ChangeType.PERMISSIONS_REVOKED;
+        }
+        return permissionsChanged;
+    }
+
+    private void pollUpdatedUsers() {
+        List<ApiUserChangeView> rows;
+        do {
+            rows = apiUserRepository.findUpdatedAfter(userMark, userMarkId,
+                    PageRequest.of(0, properties.getBatchSize()));
+            if (rows.isEmpty()) {
+                break;
+            }
+            ApiUserChangeView last = rows.get(rows.size() - 1);
+            eventPublisher.publishEvent(new ApiUsersChangedEvent(
+                    rows.stream().map(ApiUserChangeView::getId).collect(Collectors.toList()),
+                    rows.stream().map(ApiUserChangeView::getUsername).collect(Collectors.toList()),
+                    ChangeType.UPDATED,
+                    last.getDateUpdated().getTime()));
+            userMark = last.getDateUpdated();
+            userMarkId = last.getId();
+            userRowsApplied.increment(rows.size());
+        } while (rows.size() == properties.getBatchSize());
+    }
+
+    private boolean pollConfigs() {
+        Date latest = apiConfigRepository.findMaxDateUpdated();
+        if (latest == null || (configMark != null && !latest.after(configMark))) {
+            return false;
+        }
+        configMark = latest;
+        configReloads.increment();
+        return true;
+    }
+
+    private static ChangeType parseChangeType(String value) {
+        try {
+            return ChangeType.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            // Written by a newer node - treat as a generic update
+            return ChangeType.UPDATED;
+        }
+    }
+
+    private static long[] keys(Map<Long, Long> map) {
+        return map.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Same iteration order as keys() - the map is not modified in between
+    private static long[] values(Map<Long, Long> map) {
+        return map.values().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private Counter appliedCounter(String source) {
+        return Counter.builder("esb.security.cluster.changes.applied")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -1,8 +1,14 @@
 package com.tangazoletu.spotcashesb.security.filter;
 
-import com.tangazoletu.spotcashesb.entity.ApiConfig;
-import com.tangazoletu.spotcashesb.repositories.ApiConfigRepository;
+import com.tangazoletu.spotcashesb.security.authorization.ApiFunction;
+import com.tangazoletu.spotcashesb.security.authorization.ApiFunctionRegistry;
+import com.tangazoletu.spotcashesb.security.jfr.AuthorizationEvent;
+import com.tangazoletu.spotcashesb.security.metrics.SecurityMetrics;
+import com.tangazoletu.spotcashesb.security.metrics.SecurityMetrics.AuthorizationOutcome;
+import com.tangazoletu.spotcashesb.security.ratelimit.QuotaLimiter;
 import com.tangazoletu.spotcashesb.security.userdetails.SecurityUser;
+import com.tangazoletu.spotcashesb.security.web.SecurityRejectionWriter;
+import com.tangazoletu.spotcashesb.security.web.SecurityRejectionWriter.Rejection;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,22 +16,24 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class ApiAuthorizationFilter extends OncePerRequestFilter {
 
-    private final ApiConfigRepository apiConfigRepository;
+    private final ApiFunctionRegistry apiFunctionRegistry;
+    private final SecurityMetrics securityMetrics;
+    private final QuotaLimiter quotaLimiter;
+    private final SecurityRejectionWriter rejectionWriter;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -35,48 +43,82 @@ public class ApiAuthorizationFilter extends OncePerRequestFilter {
 
         if (authentication != null && authentication.isAuthenticated()) {
             SecurityUser securityUser = (SecurityUser) authentication.getPrincipal();
-            Collection<? extends GrantedAuthority> authorities = securityUser.getAuthorities();
 
             String requestedUrl = request.getRequestURI();
 
-            if (!isAuthorized(authorities, requestedUrl)) {
-                response.sendError(
-                        HttpServletResponse.SC_FORBIDDEN,
-                        "Unauthorized access to the API"
-                );
+            ApiFunction function = authorize(securityUser, requestedUrl);
+            if (function == null) {
+                rejectionWriter.reject(response, Rejection.UNAUTHORIZED_FUNCTION);
                 log.error("{} attempted unauthorized access to {}",
                         securityUser.getApiUser().getApplicationName(),
                         requestedUrl
                 );
                 return;
             }
+
+            // Quota is only charged for calls that passed authorization
+            long retryAfterNanos = quotaLimiter.tryAcquire(securityUser.getApiUser().getId(), function);
+            if (retryAfterNanos > 0) {
+                securityMetrics.recordQuotaRejected(function.getFunctionName());
+                log.debug("{} over quota for {}, retry in {} ms",
+                        securityUser.getApiUser().getApplicationName(),
+                        function.getFunctionName(),
+                        TimeUnit.NANOSECONDS.toMillis(retryAfterNanos));
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(toRetryAfterSeconds(retryAfterNanos)));
+                rejectionWriter.reject(response, Rejection.QUOTA_EXCEEDED);
+                return;
+            }
         }
 
         filterChain.doFilter(request, response);
     }
 
-    private boolean isAuthorized(Collection<? extends GrantedAuthority> authorities,
-                                 String requestedUrl) {
+    /**
+     * @return the requested function if the user may call it, otherwise {@code null}
+     */
+    private ApiFunction authorize(SecurityUser securityUser, String requestedUrl) {
+        AuthorizationEvent event = new AuthorizationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String functionName = null;
+        AuthorizationOutcome outcome = AuthorizationOutcome.DENIED;
         try {
-            String functionName = extractFunctionName(requestedUrl);
-            Optional<ApiConfig> config = apiConfigRepository.findActiveByFunctionName(functionName);
+            functionName = extractFunctionName(requestedUrl);
+            ApiFunction function = apiFunctionRegistry.find(functionName);
 
-            if (config.isEmpty()) {
+            if (function == null) {
+                outcome = AuthorizationOutcome.UNKNOWN_FUNCTION;
+                securityMetrics.recordAuthorization(outcome, null, start);
                 log.warn("API function not found: {}", functionName);
-                return false;
+                return null;
             }
 
-            Long configId = config.get().getId();
-            return authorities.stream()
-                    .anyMatch(auth -> auth.getAuthority().equals(String.valueOf(configId)));
+            boolean permitted = securityUser.isPermitted(function.getConfigId());
+            outcome = permitted ? AuthorizationOutcome.ALLOWED : AuthorizationOutcome.DENIED;
+            securityMetrics.recordAuthorization(outcome, function.getFunctionName(), start);
+            return permitted ? function : null;
 
         } catch (Exception ex) {
             log.error("Error checking API authorization", ex);
-            return false;
+            return null;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.username = securityUser.getUsername();
+                event.application = securityUser.getApiUser().getApplicationName();
+                event.functionName = functionName;
+                event.decision = outcome.name();
+                event.commit();
+            }
         }
     }
 
-    private String extractFunctionName(String requestedUrl) {
+    // Retry-After is whole seconds; never tell a client to retry immediately
+    static long toRetryAfterSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    static String extractFunctionName(String requestedUrl) {
         String[] parts = requestedUrl.split("/");
         return parts[parts.length - 1];
     }
@@ -0,0 +1,218 @@
+package com.tangazoletu.spotcashesb.security.filter;
+
+import com.tangazoletu.spotcashesb.security.authorization.AccessDecision;
+import com.tangazoletu.spotcashesb.security.authorization.AccessDecisionCache;
+import com.tangazoletu.spotcashesb.security.authorization.ApiFunction;
+import com.tangazoletu.spotcashesb.security.authorization.ApiFunctionRegistry;
+import com.tangazoletu.spotcashesb.security.ip.ClientIpResolver;
+import com.tangazoletu.spotcashesb.security.jfr.AuthorizationEvent;
+import com.tangazoletu.spotcashesb.security.jwt.JwtUtil;
+import com.tangazoletu.spotcashesb.security.jwt.TokenValidationResult;
+import com.tangazoletu.spotcashesb.security.jwt.VerifiedToken;
+import com.tangazoletu.spotcashesb.security.metrics.SecurityMetrics;
+import com.tangazoletu.spotcashesb.security.metrics.SecurityMetrics.AuthorizationOutcome;
+import com.tangazoletu.spotcashesb.security.ratelimit.QuotaLimiter;
+import com.tangazoletu.spotcashesb.security.userdetails.SecurityUser;
+import com.tangazoletu.spotcashesb.security.userdetails.SecurityUserAuthentication;
+import com.tangazoletu.spotcashesb.security.web.SecurityRejectionWriter;
+import com.tangazoletu.spotcashesb.security.web.SecurityRejectionWriter.Rejection;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Gates 1-3 in a single pass. The token, client IP and function name are extracted
+ * once; the principal, account and permission checks are memoized per
+ * (user, function) in {@link AccessDecisionCache}. Token verification, revocation,
+ * the IP whitelist and quota are still evaluated on every request. Used instead of the three separate
+ * gates when {@code esb.security.cache.decision.enabled} is set.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FusedSecurityFilter extends OncePerRequestFilter {
+
+    private final JwtUtil jwtUtil;
+    private final ClientIpResolver clientIpResolver;
+    private final ApiFunctionRegistry apiFunctionRegistry;
+    private final AccessDecisionCache accessDecisionCache;
+    private final QuotaLimiter quotaLimiter;
+    private final SecurityMetrics securityMetrics;
+    private final SecurityRejectionWriter rejectionWriter;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        // No bearer token - let Spring Security handle it
+        if (!jwtUtil.hasAuthorizationBearer(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long verifyStart = System.nanoTime();
+        TokenValidationResult result = jwtUtil.verify(jwtUtil.getJwtToken(request));
+        securityMetrics.recordTokenVerification(result.getRejectReason(), verifyStart);
+
+        if (!result.isValid()) {
+            // Counted per reason in the verify metrics; a flood of bad tokens must not flood the log
+            log.debug("Invalid token ({}) received from {}",
+                    result.getRejectReason(), request.getRemoteAddr());
+            SecurityContextHolder.clearContext();
+            SecurityRejectionWriter.markRejected(request, Rejection.forToken(result.getRejectReason()));
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        VerifiedToken token = result.getToken();
+        String clientIp = clientIpResolver.resolve(request);
+        String functionName = ApiAuthorizationFilter.extractFunctionName(request.getRequestURI());
+
+        AccessDecision decision = decide(token, clientIp, functionName);
+
+        // Principal could not be loaded, or the account is inactive - continue unauthenticated
+        if (decision == null || decision.getVerdict() == AccessDecision.Verdict.INACTIVE_ACCOUNT) {
+            if (decision != null) {
+                log.warn("Token presented for inactive account: '{}' ({})",
+                        token.getSubject(), decision.getPrincipal().getApiUser().getStatus());
+                SecurityRejectionWriter.markRejected(request, Rejection.ACCOUNT_INACTIVE);
+            }
+            SecurityContextHolder.clearContext();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        SecurityUser securityUser = decision.getPrincipal();
+        String application = securityUser.getApiUser().getApplicationName();
+
+        switch (decision.getVerdict()) {
+            case IP_DENIED -> {
+                log.error("IP WHITELIST VIOLATION - User: {}, Application: {}, IP: {}",
+                        securityUser.getUsername(), application, clientIp);
+                rejectionWriter.reject(response, Rejection.IP_NOT_WHITELISTED);
+                return;
+            }
+            case UNKNOWN_FUNCTION, FUNCTION_DENIED -> {
+                rejectionWriter.reject(response, Rejection.UNAUTHORIZED_FUNCTION);
+                log.error("{} attempted unauthorized access to {}", application, request.getRequestURI());
+                return;
+            }
+            default -> {
+                // ALLOWED
+            }
+        }
+
+        ApiFunction function = decision.getFunction();
+        long retryAfterNanos = quotaLimiter.tryAcquire(securityUser.getApiUser().getId(), function);
+        if (retryAfterNanos > 0) {
+            securityMetrics.recordQuotaRejected(function.getFunctionName());
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(ApiAuthorizationFilter.toRetryAfterSeconds(retryAfterNanos)));
+            rejectionWriter.reject(response, Rejection.QUOTA_EXCEEDED);
+            return;
+        }
+
+        SecurityUserAuthentication authentication = new SecurityUserAuthentication(securityUser, token);
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        filterChain.doFilter(request, response);
+    }
+
+    private AccessDecision decide(VerifiedToken token, String clientIp, String functionName) {
+        AuthorizationEvent event = new AuthorizationEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        // Tokens without a uid claim cannot be keyed - evaluate them every time
+        AccessDecision decision = token.hasUserId()
+                ? accessDecisionCache.get(token.getUserId(), functionName,
+                        () -> evaluate(token, functionName))
+                : evaluate(token, functionName);
+
+        // The client IP comes from X-Forwarded-For and is client-controlled, so it is never part of
+        // the cache key; the compiled whitelist on the cached principal is checked per request instead
+        if (decision != null && decision.getVerdict() != AccessDecision.Verdict.INACTIVE_ACCOUNT
+                && !decision.getPrincipal().getIpWhitelist().allows(clientIp)) {
+            decision = new AccessDecision(AccessDecision.Verdict.IP_DENIED, decision.getPrincipal(), null);
+        }
+
+        if (decision != null) {
+            recordDecision(decision, start);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.username = token.getSubject();
+            event.application = token.getApplicationName();
+            event.functionName = functionName;
+            event.decision = decision != null ? decision.getVerdict().name() : "PRINCIPAL_UNAVAILABLE";
+            event.commit();
+        }
+        return decision;
+    }
+
+    /**
+     * The IP-independent checks of gates 1-3: principal, account status and function permission.
+     *
+     * @return the decision, or {@code null} if the principal could not be loaded
+     */
+    private AccessDecision evaluate(VerifiedToken token, String functionName) {
+        long loadStart = System.nanoTime();
+        SecurityUser securityUser;
+        try {
+            securityUser = jwtUtil.getUserFromToken(token);
+            securityMetrics.recordPrincipalLoad(true, loadStart);
+        } catch (Exception e) {
+            securityMetrics.recordPrincipalLoad(false, loadStart);
+            log.error("Failed to load principal for '{}': {}", token.getSubject(), e.getMessage());
+            return null;
+        }
+
+        if (!securityUser.isEnabled() || !securityUser.isAccountNonLocked()) {
+            return new AccessDecision(AccessDecision.Verdict.INACTIVE_ACCOUNT, securityUser, null);
+        }
+        ApiFunction function = apiFunctionRegistry.find(functionName);
+        if (function == null) {
+            log.warn("API function not found: {}", functionName);
+            return new AccessDecision(AccessDecision.Verdict.UNKNOWN_FUNCTION, securityUser, null);
+        }
+        return new AccessDecision(securityUser.isPermitted(function.getConfigId())
+                ? AccessDecision.Verdict.ALLOWED
+                : AccessDecision.Verdict.FUNCTION_DENIED, securityUser, function);
+    }
+
+    // Same meters as the separate gates, recorded on every request so counts don't depend on cache hits
+    private void recordDecision(AccessDecision decision, long start) {
+        String application = decision.getPrincipal().getApiUser().getApplicationName();
+        ApiFunction function = decision.getFunction();
+        switch (decision.getVerdict()) {
+            case INACTIVE_ACCOUNT -> {
+                // Rejected before the gates, as with JwtTokenFilter
+            }
+            case IP_DENIED -> securityMetrics.recordIpCheck(false, application, start);
+            case UNKNOWN_FUNCTION -> {
+                securityMetrics.recordIpCheck(true, application, start);
+                securityMetrics.recordAuthorization(AuthorizationOutcome.UNKNOWN_FUNCTION, null, start);
+            }
+            case FUNCTION_DENIED -> {
+                securityMetrics.recordIpCheck(true, application, start);
+                securityMetrics.recordAuthorization(AuthorizationOutcome.DENIED, function.getFunctionName(), start);
+            }
+            case ALLOWED -> {
+                securityMetrics.recordIpCheck(true, application, start);
+                securityMetrics.recordAuthorization(AuthorizationOutcome.ALLOWED, function.getFunctionName(), start);
+            }
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.tangazoletu.spotcashesb.security.filter;
 
 import com.tangazoletu.spotcashesb.entity.ApiUser;
+import com.tangazoletu.spotcashesb.security.ip.ClientIpResolver;
+import com.tangazoletu.spotcashesb.security.jfr.IpCheckEvent;
+import com.tangazoletu.spotcashesb.security.metrics.SecurityMetrics;
 import com.tangazoletu.spotcashesb.security.userdetails.SecurityUser;
+import com.tangazoletu.spotcashesb.security.web.SecurityRejectionWriter;
+import com.tangazoletu.spotcashesb.security.web.SecurityRejectionWriter.Rejection;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,11 +16,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * Validates that the request originates from an IP address whitelisted
@@ -27,6 +30,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class IPFilter extends OncePerRequestFilter {
 
+    private final SecurityMetrics securityMetrics;
+    private final ClientIpResolver clientIpResolver;
+    private final SecurityRejectionWriter rejectionWriter;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -38,19 +45,29 @@ public class IPFilter extends OncePerRequestFilter {
             SecurityUser securityUser = (SecurityUser) authentication.getPrincipal();
             ApiUser apiUser = securityUser.getApiUser();
 
-            String clientIp = getClientIpAddress(request);
+            IpCheckEvent event = new IpCheckEvent();
+            event.begin();
+            long start = System.nanoTime();
+            String clientIp = clientIpResolver.resolve(request);
+            boolean allowed = securityUser.getIpWhitelist().allows(clientIp);
+            securityMetrics.recordIpCheck(allowed, apiUser.getApplicationName(), start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.username = apiUser.getUsername();
+                event.application = apiUser.getApplicationName();
+                event.clientIp = clientIp;
+                event.decision = allowed ? "ALLOWED" : "DENIED";
+                event.commit();
+            }
 
-            // Check if IP is whitelisted
-            if (!isIpWhitelisted(apiUser, clientIp)) {
+            // Check if IP is whitelisted (empty whitelist = allow all)
+            if (!allowed) {
                 log.error("IP WHITELIST VIOLATION - User: {}, Application: {}, IP: {}",
                         apiUser.getUsername(),
                         apiUser.getApplicationName(),
                         clientIp);
 
-                response.sendError(
-                        HttpServletResponse.SC_FORBIDDEN,
-                        "Access denied: IP address not whitelisted"
-                );
+                rejectionWriter.reject(response, Rejection.IP_NOT_WHITELISTED);
                 return;
             }
 
@@ -60,74 +77,4 @@ public class IPFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-
-    /**
-     * Extract real client IP address from request.
-     * Checks headers in order:
-     * 1. X-Forwarded-For (first IP in list)
-     * 2. X-Real-IP
-     * 3. request.getRemoteAddr() (fallback)
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        // Check X-Forwarded-For header (used by most load balancers)
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (StringUtils.hasText(xForwardedFor)) {
-            // Take the first IP in the chain (original client)
-            String[] ips = xForwardedFor.split(",");
-            String clientIp = ips[0].trim();
-            log.debug("Client IP from X-Forwarded-For: {}", clientIp);
-            return clientIp;
-        }
-
-        // Check X-Real-IP header
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (StringUtils.hasText(xRealIp)) {
-            log.debug("Client IP from X-Real-IP: {}", xRealIp);
-            return xRealIp.trim();
-        }
-
-        // Fallback to remote address
-        String remoteAddr = request.getRemoteAddr();
-        log.debug("Client IP from RemoteAddr: {}", remoteAddr);
-        return remoteAddr;
-    }
-
-    private boolean isIpWhitelisted(ApiUser apiUser, String clientIp) {
-        List<String> whitelistedIps = apiUser.getWhitelistedIps();
-
-        // No whitelist configured = allow all
-        if (whitelistedIps == null || whitelistedIps.isEmpty()) {
-            log.debug("No IP whitelist configured for user: {}, allowing all IPs",
-                    apiUser.getUsername());
-            return true;
-        }
-
-        // Check if client IP matches any whitelisted IP
-        boolean isWhitelisted = whitelistedIps.stream()
-                .map(String::trim)
-                .anyMatch(whitelistedIp -> matchesIp(clientIp, whitelistedIp));
-
-        return isWhitelisted;
-    }
-
-    /**
-     * Match client IP against whitelist pattern.
-     * Supports:
-     * - Exact match: 192.168.1.100
-     * - Wildcard: 192.168.1.*
-     */
-    private boolean matchesIp(String clientIp, String pattern) {
-        // Exact match
-        if (clientIp.equals(pattern)) {
-            return true;
-        }
-
-        if (pattern.contains("*")) {
-            String regex = pattern.replace(".", "\\.")
-                    .replace("*", ".*");
-            return clientIp.matches(regex);
-        }
-
-        return false;
-    }
 }
@@ -1,14 +1,19 @@
 package com.tangazoletu.spotcashesb.security.filter;
 
 import com.tangazoletu.spotcashesb.security.jwt.JwtUtil;
+import com.tangazoletu.spotcashesb.security.jwt.TokenValidationResult;
+import com.tangazoletu.spotcashesb.security.jwt.VerifiedToken;
+import com.tangazoletu.spotcashesb.security.metrics.SecurityMetrics;
 import com.tangazoletu.spotcashesb.security.userdetails.SecurityUser;
+import com.tangazoletu.spotcashesb.security.userdetails.SecurityUserAuthentication;
+import com.tangazoletu.spotcashesb.security.web.SecurityRejectionWriter;
+import com.tangazoletu.spotcashesb.security.web.SecurityRejectionWriter.Rejection;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -22,13 +27,14 @@ import java.io.IOException;
 public class JwtTokenFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final SecurityMetrics securityMetrics;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
-        // No bearer token - let Spring Security handle it (will result in 403)
+        // No bearer token - let Spring Security handle it (the entry point answers 401)
         if (!jwtUtil.hasAuthorizationBearer(request)) {
             filterChain.doFilter(request, response);
             return;
@@ -36,28 +42,45 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
         String token = jwtUtil.getJwtToken(request);
 
+        // Single decode + signature check; the result is reused for the rest of the request
+        long verifyStart = System.nanoTime();
+        TokenValidationResult result = jwtUtil.verify(token);
+        securityMetrics.recordTokenVerification(result.getRejectReason(), verifyStart);
+
         // Invalid token - clear context and continue (Spring Security blocks unauthenticated requests)
-        if (!jwtUtil.validateToken(token)) {
-            log.warn("Invalid token received from {}", request.getRemoteAddr());
+        if (!result.isValid()) {
+            // Counted per reason in the verify metrics; a flood of bad tokens must not flood the log
+            log.debug("Invalid token ({}) received from {}",
+                    result.getRejectReason(), request.getRemoteAddr());
             SecurityContextHolder.clearContext();
+            SecurityRejectionWriter.markRejected(request, Rejection.forToken(result.getRejectReason()));
             filterChain.doFilter(request, response);
             return;
         }
 
-        setAuthenticationContext(token, request);
+        setAuthenticationContext(result.getToken(), request);
         filterChain.doFilter(request, response);
     }
 
-    private void setAuthenticationContext(String token, HttpServletRequest request) {
+    private void setAuthenticationContext(VerifiedToken token, HttpServletRequest request) {
+        long loadStart = System.nanoTime();
         try {
             SecurityUser userDetails = jwtUtil.getUserFromToken(token);
+            securityMetrics.recordPrincipalLoad(true, loadStart);
+
+            // Deactivated, suspended or locked accounts keep no access, even with an unexpired token
+            if (!userDetails.isEnabled() || !userDetails.isAccountNonLocked()) {
+                log.warn("Token presented for inactive account: '{}' ({})",
+                        userDetails.getUsername(), userDetails.getApiUser().getStatus());
+                SecurityContextHolder.clearContext();
+                SecurityRejectionWriter.markRejected(request, Rejection.ACCOUNT_INACTIVE);
+                return;
+            }
 
-            UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()  // ✅ CRITICAL - authorities must be set
-                    );
+            // The verified token rides along as credentials so later gates can read its claims.
+            // Authorities come straight from the principal - no per-request copy
+            SecurityUserAuthentication authentication =
+                    new SecurityUserAuthentication(userDetails, token);
 
             authentication.setDetails(
                     new WebAuthenticationDetailsSource().buildDetails(request)
@@ -65,11 +88,12 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            log.debug("Authenticated user: '{}' with {} authorities",
+            log.debug("Authenticated user: '{}' with {} permitted APIs",
                     userDetails.getUsername(),
-                    userDetails.getAuthorities().size());
+                    userDetails.getPermittedConfigIds().size());
 
         } catch (Exception e) {
+            securityMetrics.recordPrincipalLoad(false, loadStart);
             log.error("Failed to set authentication context: {}", e.getMessage());
             SecurityContextHolder.clearContext();
         }
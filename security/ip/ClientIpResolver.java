@@ -0,0 +1,90 @@
+package com.tangazoletu.spotcashesb.security.ip;
+
+import com.tangazoletu.spotcashesb.configuration.security.LoginProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * Resolves the originating client IP. {@link #resolve} believes forwarding headers
+ * and serves the IP whitelist gate; {@link #resolveTrusted} only believes hops added
+ * by configured proxies and keys login throttling.
+ */
+@Component
+@Slf4j
+public class ClientIpResolver {
+
+    // null when no proxy is trusted
+    private final IpWhitelist trustedProxies;
+
+    public ClientIpResolver(LoginProperties loginProperties) {
+        List<String> proxies = loginProperties.getThrottle().getTrustedProxies();
+        this.trustedProxies = proxies == null || proxies.isEmpty() ? null : IpWhitelist.compile(proxies);
+    }
+
+    /**
+     * Extract real client IP address from request.
+     * Checks headers in order:
+     * 1. X-Forwarded-For (first IP in list)
+     * 2. X-Real-IP
+     * 3. request.getRemoteAddr() (fallback)
+     */
+    public String resolve(HttpServletRequest request) {
+        // Check X-Forwarded-For header (used by most load balancers)
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (StringUtils.hasText(xForwardedFor)) {
+            // Take the first IP in the chain (original client)
+            int comma = xForwardedFor.indexOf(',');
+            String clientIp = (comma < 0 ? xForwardedFor : xForwardedFor.substring(0, comma)).trim();
+            log.debug("Client IP from X-Forwarded-For: {}", clientIp);
+            return clientIp;
+        }
+
+        // Check X-Real-IP header
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (StringUtils.hasText(xRealIp)) {
+            log.debug("Client IP from X-Real-IP: {}", xRealIp);
+            return xRealIp.trim();
+        }
+
+        // Fallback to remote address
+        String remoteAddr = request.getRemoteAddr();
+        log.debug("Client IP from RemoteAddr: {}", remoteAddr);
+        return remoteAddr;
+    }
+
+    /**
+     * The client address as far as it can be established without believing the client:
+     * the peer address, or - when the peer is a trusted proxy - the right-most
+     * X-Forwarded-For hop that was not added by a trusted proxy. Used to key login
+     * throttling, where a spoofed header would give every attempt a fresh bucket.
+     */
+    public String resolveTrusted(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (trustedProxies == null || !trustedProxies.allows(remoteAddr)) {
+            return remoteAddr;
+        }
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (!StringUtils.hasText(xForwardedFor)) {
+            return remoteAddr;
+        }
+        // Hops are appended left to right; everything left of the first untrusted one is client-supplied
+        int end = xForwardedFor.length();
+        String hop = remoteAddr;
+        while (end > 0) {
+            int comma = xForwardedFor.lastIndexOf(',', end - 1);
+            String candidate = xForwardedFor.substring(comma + 1, end).trim();
+            if (!candidate.isEmpty()) {
+                hop = candidate;
+                if (!trustedProxies.allows(hop)) {
+                    break;
+                }
+            }
+            end = comma < 0 ? 0 : comma;
+        }
+        return hop;
+    }
+}
@@ -0,0 +1,727 @@
+package com.tangazoletu.spotcashesb.security.ip;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A user's IP whitelist compiled into sorted, merged numeric ranges.
+ * Supports:
+ * - Exact match: 192.168.1.100, 2001:db8::1
+ * - Wildcard: 192.168.1.*, 10.*, 192.*.1.1, 2001:db8:*
+ * - Partial wildcard: 192.168.1.1* (.1, .10-.19, .100-.199), 2001:db8:a*
+ * - CIDR: 10.0.0.0/8, 2001:db8::/32
+ * <p>
+ * Wildcards keep the meaning of the regex match this replaced: '*' matches the
+ * rest of its octet or group, and a trailing '*' also matches every octet or
+ * group after it.
+ * <p>
+ * Compiled once when the principal is loaded; {@link #allows(String)} is a
+ * binary search over primitive arrays and allocates nothing.
+ */
+@Slf4j
+public final class IpWhitelist {
+
+    private static final long V4_MAX = 0xFFFF_FFFFL;
+
+    // Interior wildcards are expanded into one range per prefix - "192.*.1.1" is 256
+    private static final int MAX_EXPANDED_PREFIXES = 256;
+
+    // What parseIpv6(String, int) returns
+    private static final int IPV6_VALID = 0;
+    private static final int IPV6_HIGH = 1;
+    private static final int IPV6_LOW = 2;
+
+    private static final String UNRESTRICTED_FINGERPRINT = "-";
+
+    private static final IpWhitelist UNRESTRICTED = new IpWhitelist(true, UNRESTRICTED_FINGERPRINT,
+            new long[0], new long[0], new long[0], new long[0], new long[0], new long[0]);
+
+    private final boolean unrestricted;
+
+    // Stable hash of the source entries - identifies this whitelist in token claims
+    private final String fingerprint;
+
+    // IPv4: inclusive [start, end] over unsigned 32-bit values
+    private final long[] v4Start;
+    private final long[] v4End;
+
+    // IPv6: inclusive 128-bit ranges as (hi, lo) pairs, compared unsigned
+    private final long[] v6StartHi;
+    private final long[] v6StartLo;
+    private final long[] v6EndHi;
+    private final long[] v6EndLo;
+
+    private IpWhitelist(boolean unrestricted, String fingerprint, long[] v4Start, long[] v4End,
+                        long[] v6StartHi, long[] v6StartLo, long[] v6EndHi, long[] v6EndLo) {
+        this.unrestricted = unrestricted;
+        this.fingerprint = fingerprint;
+        this.v4Start = v4Start;
+        this.v4End = v4End;
+        this.v6StartHi = v6StartHi;
+        this.v6StartLo = v6StartLo;
+        this.v6EndHi = v6EndHi;
+        this.v6EndLo = v6EndLo;
+    }
+
+    /**
+     * Compiles whitelist entries. No entries means no restriction (allow all);
+     * unparseable entries are logged and skipped. Saving a whitelist rejects them
+     * up front (see {@link #invalidEntries}), so only rows written before that or
+     * outside the admin API can get here.
+     */
+    public static IpWhitelist compile(List<String> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return UNRESTRICTED;
+        }
+
+        List<long[]> v4 = new ArrayList<>();
+        List<long[]> v6 = new ArrayList<>();
+        List<String> normalized = new ArrayList<>(entries.size());
+
+        for (String raw : entries) {
+            if (raw == null) {
+                continue;
+            }
+            String entry = raw.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            normalized.add(entry);
+            if (!addEntry(entry, v4, v6)) {
+                log.warn("Ignoring invalid IP whitelist entry: '{}'", entry);
+            }
+        }
+
+        if (normalized.isEmpty()) {
+            return UNRESTRICTED;
+        }
+        return build(fingerprint(normalized), v4, v6);
+    }
+
+    /**
+     * @return the entries {@link #compile} would skip, in order; empty if all are valid
+     */
+    public static List<String> invalidEntries(List<String> entries) {
+        List<String> invalid = new ArrayList<>();
+        if (entries == null) {
+            return invalid;
+        }
+        List<long[]> v4 = new ArrayList<>();
+        List<long[]> v6 = new ArrayList<>();
+        for (String raw : entries) {
+            String entry = raw == null ? "" : raw.trim();
+            if (!entry.isEmpty() && !addEntry(entry, v4, v6)) {
+                invalid.add(entry);
+            }
+        }
+        return invalid;
+    }
+
+    public boolean isUnrestricted() {
+        return unrestricted;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public boolean allows(String clientIp) {
+        if (unrestricted) {
+            return true;
+        }
+        if (clientIp == null || clientIp.isEmpty()) {
+            return false;
+        }
+
+        if (clientIp.indexOf(':') < 0) {
+            long ip = parseIpv4(clientIp, 0, clientIp.length());
+            return ip >= 0 && containsV4(ip);
+        }
+
+        // One pass per half rather than an out-array - addresses are short, allocation is not free
+        if (parseIpv6(clientIp, IPV6_VALID) == 0) {
+            return false;
+        }
+        long hi = parseIpv6(clientIp, IPV6_HIGH);
+        long lo = parseIpv6(clientIp, IPV6_LOW);
+        // IPv4-mapped IPv6 (::ffff:a.b.c.d) is matched against the IPv4 ranges
+        if (hi == 0 && (lo >>> 32) == 0xFFFFL) {
+            return containsV4(lo & V4_MAX);
+        }
+        return containsV6(hi, lo);
+    }
+
+    private boolean containsV4(long ip) {
+        int idx = floorIndex(v4Start, ip);
+        return idx >= 0 && ip <= v4End[idx];
+    }
+
+    private boolean containsV6(long hi, long lo) {
+        // Last range whose start <= ip
+        int low = 0;
+        int high = v6StartHi.length - 1;
+        int idx = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(v6StartHi[mid], v6StartLo[mid], hi, lo) <= 0) {
+                idx = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return idx >= 0 && compare(hi, lo, v6EndHi[idx], v6EndLo[idx]) <= 0;
+    }
+
+    private static int floorIndex(long[] starts, long value) {
+        int low = 0;
+        int high = starts.length - 1;
+        int idx = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= value) {
+                idx = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return idx;
+    }
+
+    private static int compare(long aHi, long aLo, long bHi, long bLo) {
+        int c = Long.compareUnsigned(aHi, bHi);
+        return c != 0 ? c : Long.compareUnsigned(aLo, bLo);
+    }
+
+    // ---------- Compilation ----------
+
+    private static boolean addEntry(String entry, List<long[]> v4, List<long[]> v6) {
+        if (entry.equals("*")) {
+            v4.add(new long[]{0, V4_MAX});
+            v6.add(new long[]{0, 0, -1L, -1L});
+            return true;
+        }
+
+        int slash = entry.indexOf('/');
+        if (slash >= 0) {
+            return addCidr(entry, slash, v4, v6);
+        }
+
+        if (entry.indexOf('*') >= 0) {
+            return entry.indexOf(':') >= 0 ? addIpv6Wildcard(entry, v6) : addIpv4Wildcard(entry, v4);
+        }
+
+        if (entry.indexOf(':') >= 0) {
+            long[] ip = new long[2];
+            if (!parseIpv6(entry, ip)) {
+                return false;
+            }
+            if (ip[0] == 0 && (ip[1] >>> 32) == 0xFFFFL) {
+                long v4Ip = ip[1] & V4_MAX;
+                v4.add(new long[]{v4Ip, v4Ip});
+            } else {
+                v6.add(new long[]{ip[0], ip[1], ip[0], ip[1]});
+            }
+            return true;
+        }
+
+        long ip = parseIpv4(entry, 0, entry.length());
+        if (ip < 0) {
+            return false;
+        }
+        v4.add(new long[]{ip, ip});
+        return true;
+    }
+
+    private static boolean addCidr(String entry, int slash, List<long[]> v4, List<long[]> v6) {
+        int prefix = parseDecimal(entry, slash + 1, entry.length(), 128);
+        if (prefix < 0) {
+            return false;
+        }
+        String address = entry.substring(0, slash);
+
+        if (address.indexOf(':') < 0) {
+            long ip = parseIpv4(address, 0, address.length());
+            if (ip < 0 || prefix > 32) {
+                return false;
+            }
+            long hostMask = prefix == 0 ? V4_MAX : (V4_MAX >>> prefix);
+            long start = ip & ~hostMask & V4_MAX;
+            v4.add(new long[]{start, start | hostMask});
+            return true;
+        }
+
+        long[] ip = new long[2];
+        if (!parseIpv6(address, ip)) {
+            return false;
+        }
+        long hiHostMask = prefix >= 64 ? 0 : (prefix == 0 ? -1L : (-1L >>> prefix));
+        long loHostMask = prefix >= 128 ? 0 : (prefix <= 64 ? -1L : (-1L >>> (prefix - 64)));
+        long startHi = ip[0] & ~hiHostMask;
+        long startLo = ip[1] & ~loHostMask;
+        v6.add(new long[]{startHi, startLo, startHi | hiHostMask, startLo | loHostMask});
+        return true;
+    }
+
+    /**
+     * IPv4 wildcards: each octet is a number, '*' or a number followed by '*'.
+     * Fewer than four octets are allowed when the last one ends in '*', which then
+     * covers the missing octets too. Constrained octets before the last one are
+     * expanded into one range per prefix.
+     */
+    private static boolean addIpv4Wildcard(String entry, List<long[]> v4) {
+        String[] parts = entry.split("\\.", -1);
+        if (parts.length > 4 || (parts.length < 4 && !parts[parts.length - 1].endsWith("*"))) {
+            return false;
+        }
+
+        List<List<int[]>> octets = new ArrayList<>(4);
+        int lastConstrained = -1;
+        for (int i = 0; i < 4; i++) {
+            List<int[]> ranges = i < parts.length ? segmentRanges(parts[i], 10, 3, 255) : fullRange(255);
+            if (ranges == null) {
+                return false;
+            }
+            octets.add(ranges);
+            if (!isFull(ranges, 255)) {
+                lastConstrained = i;
+            }
+        }
+        if (lastConstrained < 0) {
+            v4.add(new long[]{0, V4_MAX});
+            return true;
+        }
+
+        long prefixes = 1;
+        for (int i = 0; i < lastConstrained; i++) {
+            prefixes *= valueCount(octets.get(i));
+        }
+        if (prefixes > MAX_EXPANDED_PREFIXES) {
+            return false;
+        }
+        expandIpv4(octets, 0, lastConstrained, 0L, v4);
+        return true;
+    }
+
+    private static void expandIpv4(List<List<int[]>> octets, int position, int lastConstrained,
+                                   long prefix, List<long[]> v4) {
+        int shift = 24 - position * 8;
+        if (position == lastConstrained) {
+            // Everything below the last constrained octet is host bits
+            long hostMask = (1L << shift) - 1;
+            for (int[] range : octets.get(position)) {
+                v4.add(new long[]{prefix | ((long) range[0] << shift),
+                        prefix | ((long) range[1] << shift) | hostMask});
+            }
+            return;
+        }
+        for (int[] range : octets.get(position)) {
+            for (int value = range[0]; value <= range[1]; value++) {
+                expandIpv4(octets, position + 1, lastConstrained, prefix | ((long) value << shift), v4);
+            }
+        }
+    }
+
+    /**
+     * IPv6 wildcards: leading groups are hex numbers, then one group that is '*' or a
+     * hex prefix followed by '*', then only '*' groups. Fewer than eight groups are
+     * allowed when the last ends in '*'. "::" is rejected - the prefix length would be
+     * a guess. The wildcard group becomes at most four 128-bit ranges.
+     */
+    private static boolean addIpv6Wildcard(String entry, List<long[]> v6) {
+        if (entry.contains("::")) {
+            return false;
+        }
+        String[] groups = entry.split(":", -1);
+        if (groups.length > 8 || (groups.length < 8 && !groups[groups.length - 1].endsWith("*"))) {
+            return false;
+        }
+
+        long baseHi = 0;
+        long baseLo = 0;
+        int wildcardGroup = -1;
+        List<int[]> ranges = null;
+        for (int i = 0; i < groups.length; i++) {
+            if (wildcardGroup >= 0) {
+                if (!groups[i].equals("*")) {
+                    return false;   // one partial group at most, and nothing fixed after it
+                }
+                continue;
+            }
+            List<int[]> groupRanges = segmentRanges(groups[i], 16, 4, 0xFFFF);
+            if (groupRanges == null) {
+                return false;
+            }
+            if (groups[i].indexOf('*') >= 0) {
+                wildcardGroup = i;
+                ranges = groupRanges;
+            } else if (i < 4) {
+                baseHi |= ((long) groupRanges.get(0)[0]) << ((3 - i) * 16);
+            } else {
+                baseLo |= ((long) groupRanges.get(0)[0]) << ((7 - i) * 16);
+            }
+        }
+        if (wildcardGroup < 0) {
+            return false;
+        }
+
+        // Groups after the wildcard one are host bits
+        long hostHi = 0;
+        long hostLo = 0;
+        for (int i = wildcardGroup + 1; i < 8; i++) {
+            if (i < 4) {
+                hostHi |= 0xFFFFL << ((3 - i) * 16);
+            } else {
+                hostLo |= 0xFFFFL << ((7 - i) * 16);
+            }
+        }
+        for (int[] range : ranges) {
+            long startHi = baseHi;
+            long startLo = baseLo;
+            long endHi = baseHi | hostHi;
+            long endLo = baseLo | hostLo;
+            if (wildcardGroup < 4) {
+                int shift = (3 - wildcardGroup) * 16;
+                startHi |= ((long) range[0]) << shift;
+                endHi |= ((long) range[1]) << shift;
+            } else {
+                int shift = (7 - wildcardGroup) * 16;
+                startLo |= ((long) range[0]) << shift;
+                endLo |= ((long) range[1]) << shift;
+            }
+            v6.add(new long[]{startHi, startLo, endHi, endLo});
+        }
+        return true;
+    }
+
+    /**
+     * Value ranges one octet or group matches: a number, '*', or a number followed by
+     * '*'. A prefix matches every value whose text starts with it, as the regex did -
+     * "1*" as an octet is 1, 10-19 and 100-199.
+     *
+     * @return inclusive [low, high] ranges, or {@code null} if the segment is invalid
+     */
+    private static List<int[]> segmentRanges(String segment, int radix, int maxDigits, int maxValue) {
+        int star = segment.indexOf('*');
+        if (star < 0) {
+            int value = parseNumber(segment, 0, segment.length(), radix, maxDigits, maxValue);
+            return value < 0 ? null : List.<int[]>of(new int[]{value, value});
+        }
+        if (star != segment.length() - 1) {
+            return null;   // '*' only at the end of a segment
+        }
+        if (star == 0) {
+            return fullRange(maxValue);
+        }
+
+        int prefix = parseNumber(segment, 0, star, radix, maxDigits, maxValue);
+        if (prefix < 0) {
+            return null;
+        }
+        List<int[]> ranges = new ArrayList<>(maxDigits);
+        long scale = 1;
+        for (int digits = star; digits <= maxDigits; digits++) {
+            long low = prefix * scale;
+            if (low > maxValue || (prefix == 0 && digits > star)) {
+                break;   // too large, or a leading zero - never in an address's text
+            }
+            ranges.add(new int[]{(int) low, (int) Math.min(low + scale - 1, maxValue)});
+            scale *= radix;
+        }
+        return ranges;
+    }
+
+    private static List<int[]> fullRange(int maxValue) {
+        return List.<int[]>of(new int[]{0, maxValue});
+    }
+
+    private static boolean isFull(List<int[]> ranges, int maxValue) {
+        return ranges.size() == 1 && ranges.get(0)[0] == 0 && ranges.get(0)[1] == maxValue;
+    }
+
+    private static long valueCount(List<int[]> ranges) {
+        long count = 0;
+        for (int[] range : ranges) {
+            count += range[1] - range[0] + 1;
+        }
+        return count;
+    }
+
+    private static String fingerprint(List<String> entries) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.join(",", entries).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 12));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static IpWhitelist build(String fingerprint, List<long[]> v4, List<long[]> v6) {
+        v4.sort(Comparator.comparingLong(r -> r[0]));
+        List<long[]> mergedV4 = new ArrayList<>();
+        for (long[] range : v4) {
+            long[] last = mergedV4.isEmpty() ? null : mergedV4.get(mergedV4.size() - 1);
+            if (last != null && range[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                mergedV4.add(new long[]{range[0], range[1]});
+            }
+        }
+
+        v6.sort((a, b) -> compare(a[0], a[1], b[0], b[1]));
+        List<long[]> mergedV6 = new ArrayList<>();
+        for (long[] range : v6) {
+            long[] last = mergedV6.isEmpty() ? null : mergedV6.get(mergedV6.size() - 1);
+            if (last != null && compare(range[0], range[1], last[2], last[3]) <= 0) {
+                if (compare(range[2], range[3], last[2], last[3]) > 0) {
+                    last[2] = range[2];
+                    last[3] = range[3];
+                }
+            } else {
+                mergedV6.add(new long[]{range[0], range[1], range[2], range[3]});
+            }
+        }
+
+        long[] v4Start = new long[mergedV4.size()];
+        long[] v4End = new long[mergedV4.size()];
+        for (int i = 0; i < mergedV4.size(); i++) {
+            v4Start[i] = mergedV4.get(i)[0];
+            v4End[i] = mergedV4.get(i)[1];
+        }
+
+        long[] v6StartHi = new long[mergedV6.size()];
+        long[] v6StartLo = new long[mergedV6.size()];
+        long[] v6EndHi = new long[mergedV6.size()];
+        long[] v6EndLo = new long[mergedV6.size()];
+        for (int i = 0; i < mergedV6.size(); i++) {
+            long[] range = mergedV6.get(i);
+            v6StartHi[i] = range[0];
+            v6StartLo[i] = range[1];
+            v6EndHi[i] = range[2];
+            v6EndLo[i] = range[3];
+        }
+
+        return new IpWhitelist(false, fingerprint, v4Start, v4End, v6StartHi, v6StartLo, v6EndHi, v6EndLo);
+    }
+
+    // ---------- Parsing (no regex, no DNS, no allocation) ----------
+
+    /**
+     * @return the address as an unsigned 32-bit value, or -1 if not a dotted-quad
+     */
+    static long parseIpv4(String s, int from, int to) {
+        long result = 0;
+        int octets = 0;
+        int value = -1;
+
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (value < 0 || octets == 3) {
+                    return -1;
+                }
+                result = (result << 8) | value;
+                octets++;
+                value = -1;
+            } else {
+                return -1;
+            }
+        }
+
+        if (value < 0 || octets != 3) {
+            return -1;
+        }
+        return (result << 8) | value;
+    }
+
+    /**
+     * Parses an IPv6 literal (optionally bracketed, with zone ID and/or an
+     * embedded dotted IPv4 tail) into {@code out[0]} (high 64 bits) and
+     * {@code out[1]} (low 64 bits).
+     */
+    static boolean parseIpv6(String s, long[] out) {
+        if (parseIpv6(s, IPV6_VALID) == 0) {
+            return false;
+        }
+        out[0] = parseIpv6(s, IPV6_HIGH);
+        out[1] = parseIpv6(s, IPV6_LOW);
+        return true;
+    }
+
+    /**
+     * @param part {@code IPV6_VALID}: 1 if {@code s} is an IPv6 literal, else 0;
+     *             {@code IPV6_HIGH} / {@code IPV6_LOW}: that half of a valid literal
+     */
+    private static long parseIpv6(String s, int part) {
+        int from = 0;
+        int to = s.length();
+        if (to > 1 && s.charAt(0) == '[' && s.charAt(to - 1) == ']') {
+            from++;
+            to--;
+        }
+        int zone = s.indexOf('%', from);
+        if (zone >= 0 && zone < to) {
+            to = zone;
+        }
+        if (from >= to) {
+            return 0;
+        }
+
+        // Groups before "::" are placed from the top, groups after it are shifted in from the bottom
+        long leftHi = 0, leftLo = 0;
+        long rightHi = 0, rightLo = 0;
+        int leftCount = 0, rightCount = 0;
+        boolean compressed = false;
+
+        int i = from;
+        if (s.charAt(i) == ':') {
+            if (i + 1 >= to || s.charAt(i + 1) != ':') {
+                return 0;
+            }
+            compressed = true;
+            i += 2;
+        }
+
+        while (i < to) {
+            int groupStart = i;
+            int group = 0;
+            int digits = 0;
+            while (i < to && digits <= 4) {
+                int hex = hexValue(s.charAt(i));
+                if (hex < 0) {
+                    break;
+                }
+                group = (group << 4) | hex;
+                digits++;
+                i++;
+            }
+
+            if (i < to && s.charAt(i) == '.') {
+                // Embedded IPv4 tail occupies the last two groups
+                long v4 = parseIpv4(s, groupStart, to);
+                if (v4 < 0) {
+                    return 0;
+                }
+                for (int shift = 16; shift >= 0; shift -= 16) {
+                    int v4Group = (int) ((v4 >>> shift) & 0xFFFF);
+                    if (compressed) {
+                        rightHi = (rightHi << 16) | (rightLo >>> 48);
+                        rightLo = (rightLo << 16) | v4Group;
+                        rightCount++;
+                    } else {
+                        if (leftCount >= 8) {
+                            return 0;
+                        }
+                        if (leftCount < 4) {
+                            leftHi |= ((long) v4Group) << ((3 - leftCount) * 16);
+                        } else {
+                            leftLo |= ((long) v4Group) << ((7 - leftCount) * 16);
+                        }
+                        leftCount++;
+                    }
+                }
+                i = to;
+                break;
+            }
+
+            if (digits == 0 || digits > 4) {
+                return 0;
+            }
+
+            if (compressed) {
+                rightHi = (rightHi << 16) | (rightLo >>> 48);
+                rightLo = (rightLo << 16) | group;
+                rightCount++;
+            } else {
+                if (leftCount >= 8) {
+                    return 0;
+                }
+                if (leftCount < 4) {
+                    leftHi |= ((long) group) << ((3 - leftCount) * 16);
+                } else {
+                    leftLo |= ((long) group) << ((7 - leftCount) * 16);
+                }
+                leftCount++;
+            }
+
+            if (i == to) {
+                break;
+            }
+            if (s.charAt(i) != ':') {
+                return 0;
+            }
+            i++;
+            if (i < to && s.charAt(i) == ':') {
+                if (compressed) {
+                    return 0;   // only one "::" allowed
+                }
+                compressed = true;
+                i++;
+            } else if (i == to) {
+                return 0;       // trailing single ':'
+            }
+        }
+
+        int total = leftCount + rightCount;
+        if (compressed ? total > 7 : total != 8) {
+            return 0;
+        }
+
+        return switch (part) {
+            case IPV6_HIGH -> leftHi | rightHi;
+            case IPV6_LOW -> leftLo | rightLo;
+            default -> 1;
+        };
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static int parseNumber(String s, int from, int to, int radix, int maxDigits, int max) {
+        if (from >= to || to - from > maxDigits) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = radix == 16 ? hexValue(s.charAt(i)) : decimalValue(s.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * radix + digit;
+        }
+        return value <= max ? value : -1;
+    }
+
+    private static int decimalValue(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : -1;
+    }
+
+    private static int parseDecimal(String s, int from, int to, int max) {
+        return parseNumber(s, from, to, 10, 3, max);
+    }
+}
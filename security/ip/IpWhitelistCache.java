@@ -0,0 +1,26 @@
+package com.tangazoletu.spotcashesb.security.ip;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compiled whitelists by fingerprint, so a principal rebuilt from token claims
+ * can get its IP matcher without reloading the user. Many users share a
+ * whitelist, so this stays small.
+ */
+@Component
+public class IpWhitelistCache {
+
+    private final Cache<String, IpWhitelist> whitelists = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    public void register(IpWhitelist whitelist) {
+        whitelists.put(whitelist.getFingerprint(), whitelist);
+    }
+
+    public IpWhitelist get(String fingerprint) {
+        return whitelists.getIfPresent(fingerprint);
+    }
+}
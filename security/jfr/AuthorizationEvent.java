@@ -0,0 +1,29 @@
+package com.tangazoletu.spotcashesb.security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.tangazoletu.spotcashesb.security.Authorization")
+@Label("API Authorization")
+@Category({"SpotcashEsb", "Security"})
+@Description("Function lookup and permission check (Gate 3)")
+@StackTrace(false)
+public class AuthorizationEvent extends Event {
+
+    @Label("Username")
+    public String username;
+
+    @Label("Application")
+    public String application;
+
+    @Label("Function Name")
+    public String functionName;
+
+    @Label("Decision")
+    @Description("ALLOWED, DENIED or UNKNOWN_FUNCTION")
+    public String decision;
+}
@@ -0,0 +1,29 @@
+package com.tangazoletu.spotcashesb.security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.tangazoletu.spotcashesb.security.IpCheck")
+@Label("IP Whitelist Check")
+@Category({"SpotcashEsb", "Security"})
+@Description("Client IP resolution and whitelist match (Gate 2)")
+@StackTrace(false)
+public class IpCheckEvent extends Event {
+
+    @Label("Username")
+    public String username;
+
+    @Label("Application")
+    public String application;
+
+    @Label("Client IP")
+    public String clientIp;
+
+    @Label("Decision")
+    @Description("ALLOWED or DENIED")
+    public String decision;
+}
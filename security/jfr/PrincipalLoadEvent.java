@@ -0,0 +1,29 @@
+package com.tangazoletu.spotcashesb.security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.tangazoletu.spotcashesb.security.PrincipalLoad")
+@Label("Principal Load")
+@Category({"SpotcashEsb", "Security"})
+@Description("CustomUserDetailsService.loadUserByUsername - cache lookup and, on a miss, the DB queries")
+@StackTrace(false)
+public class PrincipalLoadEvent extends Event {
+
+    @Label("Username")
+    public String username;
+
+    @Label("Application")
+    public String application;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+
+    @Label("Decision")
+    @Description("LOADED or NOT_FOUND")
+    public String decision;
+}
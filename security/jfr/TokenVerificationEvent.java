@@ -0,0 +1,29 @@
+package com.tangazoletu.spotcashesb.security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.tangazoletu.spotcashesb.security.TokenVerification")
+@Label("Token Verification")
+@Category({"SpotcashEsb", "Security"})
+@Description("JWT decode + signature/claims check for one request (Gate 1)")
+@StackTrace(false)
+public class TokenVerificationEvent extends Event {
+
+    @Label("Subject")
+    public String subject;
+
+    @Label("Application")
+    public String application;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+
+    @Label("Decision")
+    @Description("VALID or the TokenRejectReason")
+    public String decision;
+}
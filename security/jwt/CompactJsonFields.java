@@ -0,0 +1,212 @@
+package com.tangazoletu.spotcashesb.security.jwt;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pulls a few top-level string and number members out of a JSON object without
+ * building a tree. Values of other members, including nested objects and arrays,
+ * are skipped rather than validated - the full parse happens later, for tokens
+ * that get that far.
+ */
+final class CompactJsonFields {
+
+    private final String json;
+    private int pos;
+
+    private CompactJsonFields(String json) {
+        this.json = json;
+    }
+
+    /**
+     * @return the wanted members that are strings ({@link String}) or numbers ({@link Number}),
+     *         or {@code null} if the input is not a single JSON object
+     */
+    static Map<String, Object> extract(String json, Set<String> names) {
+        try {
+            return new CompactJsonFields(json).readObject(names);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private Map<String, Object> readObject(Set<String> names) {
+        Map<String, Object> found = new HashMap<>(4);
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (json.charAt(pos) == '}') {
+            pos++;
+        } else {
+            while (true) {
+                skipWhitespace();
+                String name = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+
+                char c = json.charAt(pos);
+                if (names.contains(name) && c == '"') {
+                    found.put(name, readString());
+                } else if (names.contains(name) && (c == '-' || isDigit(c))) {
+                    found.put(name, readNumber());
+                } else {
+                    found.remove(name);   // A later duplicate of another type wins, as in a full parse
+                    skipValue();
+                }
+
+                skipWhitespace();
+                char next = json.charAt(pos++);
+                if (next == '}') {
+                    break;
+                }
+                if (next != ',') {
+                    throw new IllegalArgumentException();
+                }
+            }
+        }
+        skipWhitespace();
+        if (pos != json.length()) {
+            throw new IllegalArgumentException();
+        }
+        return found;
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder value = null;   // only allocated once an escape is seen
+        int start = pos;
+        while (true) {
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                return value == null ? json.substring(start, pos - 1) : value.toString();
+            }
+            if (c < 0x20) {
+                throw new IllegalArgumentException();
+            }
+            if (c == '\\') {
+                if (value == null) {
+                    value = new StringBuilder(json.substring(start, pos - 1));
+                }
+                value.append(readEscape());
+            } else if (value != null) {
+                value.append(c);
+            }
+        }
+    }
+
+    private char readEscape() {
+        char c = json.charAt(pos++);
+        return switch (c) {
+            case '"', '\\', '/' -> c;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                char decoded = (char) Integer.parseInt(json.substring(pos, pos + 4), 16);
+                pos += 4;
+                yield decoded;
+            }
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    private Number readNumber() {
+        int start = pos;
+        boolean integral = true;
+        if (json.charAt(pos) == '-') {
+            pos++;
+        }
+        pos = skipDigits(pos);
+        if (pos < json.length() && json.charAt(pos) == '.') {
+            integral = false;
+            pos = skipDigits(pos + 1);
+        }
+        if (pos < json.length() && (json.charAt(pos) == 'e' || json.charAt(pos) == 'E')) {
+            integral = false;
+            pos++;
+            if (json.charAt(pos) == '+' || json.charAt(pos) == '-') {
+                pos++;
+            }
+            pos = skipDigits(pos);
+        }
+        String number = json.substring(start, pos);
+        // NumberFormatException is an IllegalArgumentException - overflow fails the parse.
+        // Not a ternary: that would promote the Long to a Double
+        if (integral) {
+            return Long.valueOf(number);
+        }
+        return Double.valueOf(number);
+    }
+
+    private int skipDigits(int from) {
+        int i = from;
+        while (i < json.length() && isDigit(json.charAt(i))) {
+            i++;
+        }
+        if (i == from) {
+            throw new IllegalArgumentException();
+        }
+        return i;
+    }
+
+    private void skipValue() {
+        char c = json.charAt(pos);
+        if (c == '"') {
+            readString();
+        } else if (c == '-' || isDigit(c)) {
+            readNumber();
+        } else if (c == '{' || c == '[') {
+            skipComposite();
+        } else if (json.startsWith("true", pos)) {
+            pos += 4;
+        } else if (json.startsWith("false", pos)) {
+            pos += 5;
+        } else if (json.startsWith("null", pos)) {
+            pos += 4;
+        } else {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    // Only balances brackets and steps over strings - the contents are not needed
+    private void skipComposite() {
+        int depth = 0;
+        do {
+            char c = json.charAt(pos);
+            if (c == '"') {
+                readString();
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+            pos++;
+        } while (depth > 0);
+    }
+
+    private void skipWhitespace() {
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private void expect(char expected) {
+        if (json.charAt(pos++) != expected) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
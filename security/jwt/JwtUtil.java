@@ -3,11 +3,24 @@ package com.tangazoletu.spotcashesb.security.jwt;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.AlgorithmMismatchException;
+import com.auth0.jwt.exceptions.InvalidClaimException;
 import com.auth0.jwt.exceptions.JWTCreationException;
+import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.tangazoletu.spotcashesb.configuration.security.ClusterSyncProperties;
 import com.tangazoletu.spotcashesb.configuration.security.JwtProperties;
 import com.tangazoletu.spotcashesb.entity.ApiUser;
+import com.tangazoletu.spotcashesb.entity.enums.ApiUserStatus;
+import com.tangazoletu.spotcashesb.security.ip.IpWhitelist;
+import com.tangazoletu.spotcashesb.security.ip.IpWhitelistCache;
+import com.tangazoletu.spotcashesb.security.jfr.TokenVerificationEvent;
+import com.tangazoletu.spotcashesb.security.userdetails.ConfigIdSet;
 import com.tangazoletu.spotcashesb.security.userdetails.CustomUserDetailsService;
 import com.tangazoletu.spotcashesb.security.userdetails.SecurityUser;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,17 +30,33 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class JwtUtil {
 
+    public static final String CLAIM_APP = "app";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_EPOCH = "ep";
+    // Stateless authorization claims - see JwtProperties.StatelessAuthorization
+    public static final String CLAIM_PERMISSIONS = "perm";
+    public static final String CLAIM_PERMISSION_VERSION = "pv";
+    public static final String CLAIM_WHITELIST_HASH = "wlh";
+
     private final JwtProperties jwtProperties;
+    private final ClusterSyncProperties clusterSyncProperties;
     private final CustomUserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final PermissionVersionRegistry permissionVersionRegistry;
+    private final IpWhitelistCache ipWhitelistCache;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final TokenPreValidator tokenPreValidator;
 
     // Lazily initialised once - algorithm doesn't change
     private JWTVerifier jwtVerifier;
+    private JWTVerifier graceJwtVerifier;
 
     public boolean hasAuthorizationBearer(HttpServletRequest request) {
         String header = request.getHeader("Authorization");
@@ -39,16 +68,30 @@ public class JwtUtil {
         return header.substring(7).trim(); // Strip "Bearer "
     }
 
-    public String generateToken(ApiUser apiUser) {
+    public String generateToken(SecurityUser securityUser) {
+        ApiUser apiUser = securityUser.getApiUser();
         try {
-            return JWT.create()
-                    .withIssuer(jwtProperties.getIssuer())        // ✅ From config - consistent
-                    .withSubject(apiUser.getUsername())
-                    .withIssuedAt(new Date())
-                    .withClaim("app", apiUser.getApplicationName())
-                    .withExpiresAt(new Date(System.currentTimeMillis()
-                            + (jwtProperties.getAccessTokenLifetime() * 1000)))
-                    .sign(Algorithm.HMAC512(jwtProperties.getSecretKey()));
+            Algorithm algorithm = Algorithm.HMAC512(jwtProperties.getSecretKey());
+            Date issuedAt = new Date();
+
+            if (jwtProperties.getStatelessAuthorization().appliesTo(apiUser.getApplicationName())) {
+                IpWhitelist whitelist = securityUser.getIpWhitelist();
+                ipWhitelistCache.register(whitelist);
+                String token = baseToken(apiUser, issuedAt)
+                        .withClaim(CLAIM_PERMISSIONS, PermissionClaimCodec.encode(securityUser.getPermittedConfigIds()))
+                        .withClaim(CLAIM_PERMISSION_VERSION, permissionVersionRegistry.currentVersion(apiUser.getId()))
+                        .withClaim(CLAIM_WHITELIST_HASH, whitelist.getFingerprint())
+                        .sign(algorithm);
+                // TokenPreValidator rejects anything longer - drop the claims and let requests load the principal
+                if (token.length() <= jwtProperties.getMaxTokenLength()) {
+                    return token;
+                }
+                log.warn("Permission claims for '{}' make a {}-character token (jwt.max-token-length {}) - "
+                        + "issuing it without them", apiUser.getUsername(), token.length(),
+                        jwtProperties.getMaxTokenLength());
+            }
+
+            return baseToken(apiUser, issuedAt).sign(algorithm);
 
         } catch (JWTCreationException e) {
             log.error("Error generating JWT token for user '{}': {}",
@@ -57,15 +100,20 @@ public class JwtUtil {
         }
     }
 
+    private JWTCreator.Builder baseToken(ApiUser apiUser, Date issuedAt) {
+        return JWT.create()
+                .withIssuer(jwtProperties.getIssuer())        // ✅ From config - consistent
+                .withSubject(apiUser.getUsername())
+                .withIssuedAt(issuedAt)
+                .withClaim(CLAIM_APP, apiUser.getApplicationName())
+                .withClaim(CLAIM_USER_ID, apiUser.getId())
+                .withClaim(CLAIM_EPOCH, tokenRevocationRegistry.currentEpoch(apiUser.getId()))
+                .withExpiresAt(new Date(issuedAt.getTime()
+                        + (jwtProperties.getAccessTokenLifetime() * 1000)));
+    }
+
     public boolean validateToken(String token) {
-        try {
-            getJwtVerifier().verify(token);
-            return true;
-        } catch (JWTVerificationException e) {
-            log.warn("Invalid token for subject '{}': {}",
-                    safeGetSubject(token), e.getMessage());
-            return false;
-        }
+        return verify(token).isValid();
     }
 
     /**
@@ -73,41 +121,171 @@ public class JwtUtil {
      * Useful for the refresh endpoint where the token may have just expired.
      */
     public boolean validateTokenWithGrace(String token) {
-        try {
-            DecodedJWT decoded = JWT.decode(token);
-            long gracePeriodMs = jwtProperties.getRefreshGracePeriodSeconds() * 1000L;
-            long expiryWithGrace = decoded.getExpiresAt().getTime() + gracePeriodMs;
+        return verifyWithGrace(token).isValid();
+    }
 
-            if (System.currentTimeMillis() > expiryWithGrace) {
-                log.warn("Token too expired to refresh for subject '{}'", decoded.getSubject());
-                return false;
+    /**
+     * Decodes and verifies the token exactly once. Callers should keep the
+     * returned {@link VerifiedToken} rather than going back to the raw string.
+     */
+    public TokenValidationResult verify(String token) {
+        TokenVerificationEvent event = new TokenVerificationEvent();
+        event.begin();
+
+        TokenValidationResult result;
+        VerifiedToken cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            result = checkRevocation(cached);
+        } else {
+            result = verify(token, getJwtVerifier(), 0);
+            if (result.isValid()) {
+                // Cache before the revocation check - revocation is re-checked on every hit
+                verifiedTokenCache.put(token, result.getToken());
+                result = checkRevocation(result.getToken());
             }
+        }
 
-            // Also verify signature
-            Algorithm algorithm = Algorithm.HMAC512(jwtProperties.getSecretKey());
-            JWT.require(algorithm).withIssuer(jwtProperties.getIssuer())
-                    .acceptExpiresAt(jwtProperties.getRefreshGracePeriodSeconds())
-                    .build()
-                    .verify(token);
+        event.end();
+        if (event.shouldCommit()) {
+            event.cacheHit = cached != null;
+            event.decision = result.isValid() ? "VALID" : result.getRejectReason().name();
+            VerifiedToken verified = cached != null ? cached : result.getToken();
+            if (verified != null) {
+                event.subject = verified.getSubject();
+                event.application = verified.getApplicationName();
+            }
+            event.commit();
+        }
+        return result;
+    }
 
-            return true;
-        } catch (Exception e) {
-            log.warn("Token grace validation failed: {}", e.getMessage());
-            return false;
+    /**
+     * Same as {@link #verify(String)} but accepts tokens that expired less than
+     * {@code refreshGracePeriodSeconds} ago.
+     */
+    public TokenValidationResult verifyWithGrace(String token) {
+        TokenValidationResult result = verify(token, getGraceJwtVerifier(),
+                jwtProperties.getRefreshGracePeriodSeconds());
+        return result.isValid() ? checkRevocation(result.getToken()) : result;
+    }
+
+    /**
+     * Principal for a verified token. Stateless tokens with current claims are
+     * authorized straight from the token; everything else goes through
+     * {@link CustomUserDetailsService}.
+     */
+    public SecurityUser getUserFromToken(VerifiedToken token) {
+        SecurityUser fromClaims = getUserFromClaims(token);
+        return fromClaims != null ? fromClaims : loadUser(token);
+    }
+
+    /**
+     * Always resolves the principal through {@link CustomUserDetailsService}, ignoring any embedded claims.
+     */
+    public SecurityUser loadUser(VerifiedToken token) {
+        SecurityUser user = (SecurityUser) userDetailsService.loadUserByUsername(token.getSubject());
+        if (jwtProperties.getStatelessAuthorization().isEnabled()) {
+            // Lets the next request with this token take the stateless path
+            ipWhitelistCache.register(user.getIpWhitelist());
         }
+        return user;
     }
 
-    public DecodedJWT decodeJwt(String token) {
-        return getJwtVerifier().verify(token);
+    private SecurityUser getUserFromClaims(VerifiedToken token) {
+        JwtProperties.StatelessAuthorization config = jwtProperties.getStatelessAuthorization();
+        if (!config.isEnabled()) {
+            return null;
+        }
+
+        Long userId = asLong(token.getClaim(CLAIM_USER_ID));
+        Long version = asLong(token.getClaim(CLAIM_PERMISSION_VERSION));
+        Claim permissions = token.getClaim(CLAIM_PERMISSIONS);
+        Claim whitelistHash = token.getClaim(CLAIM_WHITELIST_HASH);
+        if (userId == null || version == null || permissions == null || whitelistHash == null) {
+            return null;
+        }
+
+        // Bounded staleness: old claims and claims predating an admin change are not trusted
+        if (System.currentTimeMillis() - version > statelessMaxAgeSeconds(config) * 1000L
+                || !permissionVersionRegistry.isCurrent(userId, version)) {
+            return null;
+        }
+
+        IpWhitelist whitelist = ipWhitelistCache.get(whitelistHash.asString());
+        ConfigIdSet permittedConfigIds = PermissionClaimCodec.decode(permissions.asString());
+        if (whitelist == null || permittedConfigIds == null) {
+            return null;
+        }
+
+        ApiUser apiUser = ApiUser.builder()
+                .id(userId)
+                .username(token.getSubject())
+                .applicationName(token.getApplicationName())
+                .status(ApiUserStatus.ACTIVE)   // deactivation bumps the version, so claims would be stale
+                .build();
+        return new SecurityUser(apiUser, permittedConfigIds, whitelist);
+    }
+
+    // The version check is only complete if the change log replays every change within the token lifetime
+    private long statelessMaxAgeSeconds(JwtProperties.StatelessAuthorization config) {
+        long lifetime = jwtProperties.getAccessTokenLifetime();
+        boolean changesReplayed = clusterSyncProperties.isEnabled()
+                && TimeUnit.HOURS.toSeconds(clusterSyncProperties.getRetentionHours()) >= lifetime;
+        return config.resolveMaxAgeSeconds(lifetime, changesReplayed);
+    }
+
+    private static Long asLong(Claim claim) {
+        return claim == null ? null : claim.asLong();
+    }
+
+    private TokenValidationResult verify(String token, JWTVerifier verifier, long expiryLeewaySeconds) {
+        // Junk, foreign and expired tokens stop here - no HMAC, no full parse, no WARN log
+        TokenPreValidator.Failure failure = tokenPreValidator.check(token, expiryLeewaySeconds);
+        if (failure != null) {
+            return TokenValidationResult.rejected(failure.getRejectReason());
+        }
+
+        DecodedJWT decoded;
+        try {
+            decoded = JWT.decode(token);
+        } catch (JWTDecodeException e) {
+            // Rejections are counted by reason in SecurityMetrics; per-token logs stay at debug
+            log.debug("Malformed token received: {}", e.getMessage());
+            return TokenValidationResult.rejected(TokenRejectReason.MALFORMED);
+        }
+
+        try {
+            // Verifying the already-decoded token avoids a second Base64/JSON pass
+            return TokenValidationResult.valid(VerifiedToken.from(verifier.verify(decoded)));
+        } catch (JWTVerificationException e) {
+            // The subject is unverified and attacker-chosen - don't echo it into the log
+            log.debug("Token failed verification: {}", e.getMessage());
+            return TokenValidationResult.rejected(rejectReasonFor(e));
+        }
     }
 
-    public String getSubject(String token) {
-        return decodeJwt(token).getSubject();
+    private TokenValidationResult checkRevocation(VerifiedToken token) {
+        if (token.hasUserId() && tokenRevocationRegistry.isRevoked(token.getUserId(), token.getEpoch())) {
+            log.debug("Revoked token presented for subject '{}'", token.getSubject());
+            return TokenValidationResult.rejected(TokenRejectReason.REVOKED);
+        }
+        return TokenValidationResult.valid(token);
     }
 
-    public SecurityUser getUserFromToken(String token) {
-        String username = getSubject(token);
-        return (SecurityUser) userDetailsService.loadUserByUsername(username);
+    private TokenRejectReason rejectReasonFor(JWTVerificationException e) {
+        if (e instanceof TokenExpiredException) {
+            return TokenRejectReason.EXPIRED;
+        }
+        if (e instanceof SignatureVerificationException) {
+            return TokenRejectReason.INVALID_SIGNATURE;
+        }
+        if (e instanceof AlgorithmMismatchException) {
+            return TokenRejectReason.ALGORITHM_MISMATCH;
+        }
+        if (e instanceof InvalidClaimException) {
+            return TokenRejectReason.INVALID_CLAIM;
+        }
+        return TokenRejectReason.INVALID;
     }
 
     private JWTVerifier getJwtVerifier() {
@@ -119,11 +297,13 @@ public class JwtUtil {
         return jwtVerifier;
     }
 
-    private String safeGetSubject(String token) {
-        try {
-            return JWT.decode(token).getSubject();
-        } catch (Exception e) {
-            return "unknown";
+    private JWTVerifier getGraceJwtVerifier() {
+        if (graceJwtVerifier == null) {
+            graceJwtVerifier = JWT.require(Algorithm.HMAC512(jwtProperties.getSecretKey()))
+                    .withIssuer(jwtProperties.getIssuer())
+                    .acceptExpiresAt(jwtProperties.getRefreshGracePeriodSeconds())
+                    .build();
         }
+        return graceJwtVerifier;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package com.tangazoletu.spotcashesb.security.jwt;
+
+import com.tangazoletu.spotcashesb.security.userdetails.ConfigIdSet;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Compact, versioned encoding of a ConfigIdSet for the "perm" token claim:
+ * <pre>
+ *   1.b.&lt;base64url bitmap&gt;        bit n set = config ID n permitted
+ *   1.d.&lt;base64url varints&gt;       first ID, then gaps between sorted IDs
+ * </pre>
+ * Whichever form is shorter is used. Unknown versions decode to {@code null}
+ * so callers fall back to loading permissions from the database.
+ */
+public final class PermissionClaimCodec {
+
+    private static final String VERSION = "1";
+    private static final String BITMAP_PREFIX = VERSION + ".b.";
+    private static final String DELTA_PREFIX = VERSION + ".d.";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // Refuse to build absurd bitmaps from a (signed, but still) foreign claim
+    private static final int MAX_BITMAP_BYTES = 64 * 1024;
+
+    private PermissionClaimCodec() {}
+
+    public static String encode(ConfigIdSet ids) {
+        long[] sorted = ids.toArray();
+        byte[] deltas = encodeDeltas(sorted);
+
+        long maxId = sorted.length == 0 ? -1 : sorted[sorted.length - 1];
+        long bitmapBytes = (maxId >>> 3) + 1;
+        if (sorted.length > 0 && bitmapBytes < deltas.length) {
+            return BITMAP_PREFIX + ENCODER.encodeToString(encodeBitmap(sorted, (int) bitmapBytes));
+        }
+        return DELTA_PREFIX + ENCODER.encodeToString(deltas);
+    }
+
+    /**
+     * @return the decoded set, or {@code null} if the claim is not in a format we understand
+     */
+    public static ConfigIdSet decode(String claim) {
+        if (claim == null) {
+            return null;
+        }
+        try {
+            if (claim.startsWith(BITMAP_PREFIX)) {
+                return decodeBitmap(DECODER.decode(claim.substring(BITMAP_PREFIX.length())));
+            }
+            if (claim.startsWith(DELTA_PREFIX)) {
+                return decodeDeltas(DECODER.decode(claim.substring(DELTA_PREFIX.length())));
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static byte[] encodeBitmap(long[] sorted, int size) {
+        byte[] bitmap = new byte[size];
+        for (long id : sorted) {
+            bitmap[(int) (id >>> 3)] |= (byte) (1 << (id & 7));
+        }
+        return bitmap;
+    }
+
+    private static ConfigIdSet decodeBitmap(byte[] bitmap) {
+        if (bitmap.length > MAX_BITMAP_BYTES) {
+            return null;
+        }
+        int count = 0;
+        for (byte b : bitmap) {
+            count += Integer.bitCount(b & 0xFF);
+        }
+        long[] ids = new long[count];
+        int n = 0;
+        for (int i = 0; i < bitmap.length; i++) {
+            int b = bitmap[i] & 0xFF;
+            while (b != 0) {
+                int bit = Integer.numberOfTrailingZeros(b);
+                ids[n++] = ((long) i << 3) | bit;
+                b &= b - 1;
+            }
+        }
+        return ConfigIdSet.of(ids);
+    }
+
+    private static byte[] encodeDeltas(long[] sorted) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sorted.length * 2);
+        long previous = 0;
+        for (long id : sorted) {
+            long value = id - previous;
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+            previous = id;
+        }
+        return out.toByteArray();
+    }
+
+    private static ConfigIdSet decodeDeltas(byte[] bytes) {
+        long[] ids = new long[bytes.length];   // at least one byte per ID
+        int n = 0;
+        long previous = 0;
+        int i = 0;
+        while (i < bytes.length) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (i >= bytes.length || shift > 56) {
+                    return null;
+                }
+                b = bytes[i++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += value;
+            ids[n++] = previous;
+        }
+        return ConfigIdSet.of(Arrays.copyOf(ids, n));
+    }
+}
@@ -0,0 +1,68 @@
+package com.tangazoletu.spotcashesb.security.jwt;
+
+import com.tangazoletu.spotcashesb.event.ApiUserChangedEvent;
+import com.tangazoletu.spotcashesb.event.ApiUsersChangedEvent;
+import com.tangazoletu.spotcashesb.security.support.CopyOnWriteLongMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * userId -> time (epoch millis) of the last admin change to that user's
+ * permissions, whitelist or status. Stateless tokens carry the time they were
+ * issued as their permission version; a token issued before the last change
+ * holds stale claims and must not be used to authorize.
+ * <p>
+ * The registry is node-local. With cluster sync (esb.security.cluster-sync) it is
+ * seeded from API_CHANGE_LOG at startup and changes made on other nodes arrive within
+ * a poll interval, so claims can be trusted for the token's whole lifetime; without
+ * it jwt.stateless-authorization.max-age-seconds bounds how long stale claims live.
+ */
+@Component
+@Slf4j
+public class PermissionVersionRegistry {
+
+    private final CopyOnWriteLongMap lastChange = new CopyOnWriteLongMap();
+
+    /**
+     * @return true if claims issued at {@code issuedVersion} still reflect the user's permissions
+     */
+    public boolean isCurrent(long userId, long issuedVersion) {
+        // Strictly after: a token stamped in the same millisecond as a change is treated as stale
+        return issuedVersion > lastChange.get(userId, 0L);
+    }
+
+    /**
+     * Version to stamp on a newly issued token - never older than the last recorded change.
+     */
+    public long currentVersion(long userId) {
+        return Math.max(System.currentTimeMillis(), lastChange.get(userId, 0L) + 1);
+    }
+
+    public void recordChange(long userId, long changedAt) {
+        lastChange.putMax(userId, changedAt);
+    }
+
+    /**
+     * Records a change per user ({@code changedAt[i]} for {@code userIds[i]}) with one table copy.
+     */
+    public void recordChanges(long[] userIds, long[] changedAt) {
+        lastChange.putMaxAll(userIds, changedAt);
+    }
+
+    // Recorded after commit, so a token issued while the change was in flight is still caught
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApiUserChanged(ApiUserChangedEvent event) {
+        if (event.getUserId() != null) {
+            recordChange(event.getUserId(), Math.max(event.getChangedAt(), System.currentTimeMillis()));
+            log.debug("Permission version bumped for user ID: {}", event.getUserId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApiUsersChanged(ApiUsersChangedEvent event) {
+        long[] userIds = event.userIdArray();
+        lastChange.putMaxAll(userIds, Math.max(event.getChangedAt(), System.currentTimeMillis()));
+        log.debug("Permission version bumped for {} users", userIds.length);
+    }
+}
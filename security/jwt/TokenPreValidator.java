@@ -0,0 +1,157 @@
+package com.tangazoletu.spotcashesb.security.jwt;
+
+import com.tangazoletu.spotcashesb.configuration.security.JwtProperties;
+import com.tangazoletu.spotcashesb.security.metrics.SecurityMetrics;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cheap structural checks that run before any HMAC or full JSON parse: length,
+ * three base64url segments, an HS512-sized signature, the header alg/typ, and
+ * the iss/exp claims read with {@link CompactJsonFields}. Junk and foreign tokens
+ * are rejected in microseconds and counted by {@link Failure}, not logged.
+ * Beyond what the full verifier checks it only insists on typ JWT and an exp
+ * claim, which every token we issue carries.
+ */
+@Component
+@Slf4j
+public class TokenPreValidator {
+
+    private static final String ALGORITHM = "HS512";
+    private static final String TYPE = "JWT";
+    private static final int SIGNATURE_LENGTH = 86;   // 64-byte HMAC-SHA512, base64url without padding
+    private static final int MAX_HEADER_LENGTH = 256;
+
+    private static final Set<String> HEADER_FIELDS = Set.of("alg", "typ");
+    private static final Set<String> CLAIM_FIELDS = Set.of("iss", "exp");
+
+    private final String issuer;
+    private final int maxTokenLength;
+    private final SecurityMetrics securityMetrics;
+
+    public TokenPreValidator(JwtProperties jwtProperties, SecurityMetrics securityMetrics) {
+        this.issuer = jwtProperties.getIssuer();
+        this.maxTokenLength = jwtProperties.getMaxTokenLength();
+        this.securityMetrics = securityMetrics;
+    }
+
+    /**
+     * @param expiryLeewaySeconds how long past exp the token is still accepted (the refresh grace period)
+     * @return why the token cannot be valid, or {@code null} if it should go on to full verification
+     */
+    public Failure check(String token, long expiryLeewaySeconds) {
+        Failure failure = findFailure(token, expiryLeewaySeconds);
+        if (failure != null) {
+            securityMetrics.recordTokenPreValidationFailure(failure);
+            log.debug("Token rejected before verification: {}", failure);
+        }
+        return failure;
+    }
+
+    private Failure findFailure(String token, long expiryLeewaySeconds) {
+        int length = token.length();
+        if (length < SIGNATURE_LENGTH + 4 || length > maxTokenLength) {
+            return Failure.LENGTH;
+        }
+
+        // One pass: locate the two dots and check every other character is base64url
+        int firstDot = -1;
+        int secondDot = -1;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (firstDot < 0) {
+                    firstDot = i;
+                } else if (secondDot < 0) {
+                    secondDot = i;
+                } else {
+                    return Failure.STRUCTURE;
+                }
+            } else if (!isBase64Url(c)) {
+                return Failure.ENCODING;
+            }
+        }
+        if (secondDot < 0 || firstDot == 0 || secondDot == firstDot + 1
+                || length - secondDot - 1 != SIGNATURE_LENGTH) {
+            return Failure.STRUCTURE;
+        }
+        if (firstDot > MAX_HEADER_LENGTH) {
+            return Failure.HEADER;
+        }
+
+        String header = decode(token, 0, firstDot);
+        String payload = decode(token, firstDot + 1, secondDot);
+        if (header == null || payload == null) {
+            return Failure.ENCODING;
+        }
+
+        Map<String, Object> headerFields = CompactJsonFields.extract(header, HEADER_FIELDS);
+        if (headerFields == null) {
+            return Failure.HEADER;
+        }
+        if (!ALGORITHM.equals(headerFields.get("alg"))) {
+            return Failure.ALGORITHM;
+        }
+        Object type = headerFields.get("typ");
+        if (type != null && !TYPE.equalsIgnoreCase(type.toString())) {
+            return Failure.HEADER;
+        }
+
+        Map<String, Object> claims = CompactJsonFields.extract(payload, CLAIM_FIELDS);
+        if (claims == null) {
+            return Failure.CLAIMS;
+        }
+        if (!issuer.equals(claims.get("iss"))) {
+            return Failure.ISSUER;
+        }
+        // Every token we issue has exp; a number is all the full verifier accepts
+        if (!(claims.get("exp") instanceof Number exp)) {
+            return Failure.EXPIRY;
+        }
+        // Whole seconds, rounded down - never stricter than the verifier
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        if (nowSeconds > exp.longValue() + expiryLeewaySeconds) {
+            return Failure.EXPIRED;
+        }
+        return null;
+    }
+
+    private static String decode(String token, int from, int to) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token.substring(from, to));
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;   // impossible length for base64, e.g. 4n+1 characters
+        }
+    }
+
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_';
+    }
+
+    @Getter
+    public enum Failure {
+        LENGTH(TokenRejectReason.MALFORMED),             // Shorter than any HS512 token or over jwt.max-token-length
+        STRUCTURE(TokenRejectReason.MALFORMED),          // Not three segments, or the signature is not HS512-sized
+        ENCODING(TokenRejectReason.MALFORMED),           // Outside the base64url alphabet or not decodable
+        HEADER(TokenRejectReason.MALFORMED),             // Not a JSON object, oversized, or typ is not JWT
+        ALGORITHM(TokenRejectReason.ALGORITHM_MISMATCH), // alg is not HS512 (includes "none")
+        CLAIMS(TokenRejectReason.MALFORMED),             // Payload is not a JSON object
+        ISSUER(TokenRejectReason.INVALID_CLAIM),         // Missing or foreign iss
+        EXPIRY(TokenRejectReason.INVALID_CLAIM),         // Missing or non-numeric exp
+        EXPIRED(TokenRejectReason.EXPIRED);
+
+        private final TokenRejectReason rejectReason;
+
+        Failure(TokenRejectReason rejectReason) {
+            this.rejectReason = rejectReason;
+        }
+    }
+}
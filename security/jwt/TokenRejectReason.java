@@ -0,0 +1,11 @@
+package com.tangazoletu.spotcashesb.security.jwt;
+
+public enum TokenRejectReason {
+    MALFORMED,            // Not a decodable JWT
+    ALGORITHM_MISMATCH,   // Header alg is not the one we sign with
+    INVALID_SIGNATURE,    // Signed with a different key or tampered
+    EXPIRED,              // Past exp (plus grace, on the refresh path)
+    INVALID_CLAIM,        // Wrong issuer or other required claim mismatch
+    REVOKED,              // Issued before the user's tokens were revoked
+    INVALID               // Any other verification failure
+}
@@ -0,0 +1,80 @@
+package com.tangazoletu.spotcashesb.security.jwt;
+
+import com.tangazoletu.spotcashesb.event.ApiUserChangedEvent;
+import com.tangazoletu.spotcashesb.event.ApiUsersChangedEvent;
+import com.tangazoletu.spotcashesb.security.support.CopyOnWriteLongMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * userId -> minimum valid token epoch. Every token carries the epoch it was
+ * issued at ("ep" claim, epoch millis); deactivating a user, changing their
+ * password or revoking permissions moves the minimum forward, which rejects
+ * every token issued before the change with one primitive map lookup.
+ * <p>
+ * This is what makes aggressive principal and token caching safe.
+ */
+@Component
+@Slf4j
+public class TokenRevocationRegistry {
+
+    private static final Set<ApiUserChangedEvent.ChangeType> REVOKING_CHANGES = EnumSet.of(
+            ApiUserChangedEvent.ChangeType.DEACTIVATED,
+            ApiUserChangedEvent.ChangeType.LOCKED,
+            ApiUserChangedEvent.ChangeType.PASSWORD_CHANGED,
+            ApiUserChangedEvent.ChangeType.PERMISSIONS_REVOKED
+    );
+
+    private final CopyOnWriteLongMap minimumEpoch = new CopyOnWriteLongMap();
+
+    public boolean isRevoked(long userId, long tokenEpoch) {
+        return tokenEpoch < minimumEpoch.get(userId, 0L);
+    }
+
+    /**
+     * Epoch to stamp on a newly issued token - never below the current minimum.
+     */
+    public long currentEpoch(long userId) {
+        return Math.max(System.currentTimeMillis(), minimumEpoch.get(userId, 0L));
+    }
+
+    /**
+     * Rejects all of the user's tokens issued before {@code epoch}.
+     */
+    public void revokeBefore(long userId, long epoch) {
+        minimumEpoch.putMax(userId, epoch);
+    }
+
+    /**
+     * Bulk {@link #revokeBefore(long, long)} ({@code epochs[i]} for {@code userIds[i]}) with one table copy.
+     */
+    public void revokeBefore(long[] userIds, long[] epochs) {
+        minimumEpoch.putMaxAll(userIds, epochs);
+    }
+
+    public static boolean isRevoking(ApiUserChangedEvent.ChangeType changeType) {
+        return REVOKING_CHANGES.contains(changeType);
+    }
+
+    // After commit: a token issued while the change was in flight is revoked too
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApiUserChanged(ApiUserChangedEvent event) {
+        if (event.getUserId() != null && isRevoking(event.getChangeType())) {
+            revokeBefore(event.getUserId(), Math.max(event.getChangedAt(), System.currentTimeMillis()));
+            log.info("Revoked existing tokens for user '{}' ({})", event.getUsername(), event.getChangeType());
+        }
+    }
+
+    // One summary line per batch - a bulk revoke can touch every user of an application
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApiUsersChanged(ApiUsersChangedEvent event) {
+        if (isRevoking(event.getChangeType()) && !event.getUserIds().isEmpty()) {
+            minimumEpoch.putMaxAll(event.userIdArray(), Math.max(event.getChangedAt(), System.currentTimeMillis()));
+            log.info("Revoked existing tokens for {} users ({})", event.getUserIds().size(), event.getChangeType());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.tangazoletu.spotcashesb.security.jwt;
+
+import lombok.Getter;
+
+/**
+ * Outcome of a single token verification: either the verified token
+ * or the reason it was rejected - never both.
+ */
+@Getter
+public final class TokenValidationResult {
+
+    private final VerifiedToken token;
+    private final TokenRejectReason rejectReason;
+
+    private TokenValidationResult(VerifiedToken token, TokenRejectReason rejectReason) {
+        this.token = token;
+        this.rejectReason = rejectReason;
+    }
+
+    public static TokenValidationResult valid(VerifiedToken token) {
+        return new TokenValidationResult(token, null);
+    }
+
+    public static TokenValidationResult rejected(TokenRejectReason reason) {
+        return new TokenValidationResult(null, reason);
+    }
+
+    public boolean isValid() {
+        return token != null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.tangazoletu.spotcashesb.security.jwt;
+
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * A token whose signature, issuer and expiry have already been checked.
+ * Produced once per request by {@link JwtUtil#verify(String)} so that later
+ * stages never decode or MAC the same token again.
+ */
+@Getter
+public final class VerifiedToken {
+
+    private final String subject;
+    private final String applicationName;
+    private final long userId;      // -1 for tokens issued without a uid claim
+    private final long epoch;       // 0 for tokens issued without an ep claim
+    private final Date expiresAt;
+    private final Map<String, Claim> claims;
+
+    private VerifiedToken(String subject, String applicationName, long userId, long epoch,
+                          Date expiresAt, Map<String, Claim> claims) {
+        this.subject = subject;
+        this.applicationName = applicationName;
+        this.userId = userId;
+        this.epoch = epoch;
+        this.expiresAt = expiresAt;
+        this.claims = claims;
+    }
+
+    static VerifiedToken from(DecodedJWT decoded) {
+        Long userId = decoded.getClaim(JwtUtil.CLAIM_USER_ID).asLong();
+        Long epoch = decoded.getClaim(JwtUtil.CLAIM_EPOCH).asLong();
+        return new VerifiedToken(
+                decoded.getSubject(),
+                decoded.getClaim(JwtUtil.CLAIM_APP).asString(),
+                userId != null ? userId : -1L,
+                epoch != null ? epoch : 0L,
+                decoded.getExpiresAt(),
+                decoded.getClaims()
+        );
+    }
+
+    public boolean hasUserId() {
+        return userId >= 0;
+    }
+
+    public Claim getClaim(String name) {
+        return claims.get(name);
+    }
+}
@@ -0,0 +1,24 @@
+package com.tangazoletu.spotcashesb.security.login;
+
+/**
+ * Thrown when a credential check is turned away because the hashing pool
+ * is saturated - the login should be retried, not counted as a failure.
+ */
+public class LoginBusyException extends RuntimeException {
+
+    private final Reason reason;
+
+    public LoginBusyException(Reason reason) {
+        super("Credential check rejected: " + reason);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public enum Reason {
+        QUEUE_FULL,        // No room in the bounded queue
+        QUEUE_TIMEOUT      // Waited past the deadline before a thread picked it up
+    }
+}
@@ -0,0 +1,172 @@
+package com.tangazoletu.spotcashesb.security.login;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tangazoletu.spotcashesb.configuration.security.LoginProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-username and per-IP login failure throttling, checked before the
+ * credential check so blocked attempts cost no DB lookup and no hash.
+ * <p>
+ * Each key holds a single AtomicLong: the time at which all of its recorded
+ * failures will have decayed (GCRA-style). A failure pushes that time forward
+ * by {@code decay / maxFailures}; the key is blocked while it is more than
+ * {@code maxFailures - 1} intervals ahead of now. Updates are a CAS loop, so
+ * there are no locks, and keys are only created on failure - in a cache whose
+ * size is capped - so memory stays bounded however many keys an attacker uses.
+ */
+@Component
+@Slf4j
+public class LoginThrottle implements MeterBinder {
+
+    private final boolean enabled;
+    private final FailureCounters usernames;
+    private final FailureCounters ips;
+    // Long-window bad-password counter per username; null when locking is disabled
+    private final FailureCounters lockCounters;
+
+    public LoginThrottle(LoginProperties loginProperties) {
+        LoginProperties.Throttle config = loginProperties.getThrottle();
+        this.enabled = config.isEnabled();
+        this.usernames = new FailureCounters(config.getUsername(), config.getMaximumKeys());
+        this.ips = new FailureCounters(config.getIp(), config.getMaximumKeys());
+        this.lockCounters = config.getLockAfterFailures() > 0
+                ? new FailureCounters(
+                        new LoginProperties.Limit(config.getLockAfterFailures(), config.getLockWindowSeconds()),
+                        config.getMaximumKeys())
+                : null;
+
+        log.info("Login throttle {} (username: {}, ip: {}, lock after: {})",
+                enabled ? "enabled" : "disabled", config.getUsername(), config.getIp(),
+                lockCounters != null ? config.getLockAfterFailures() : "never");
+    }
+
+    /**
+     * @throws LoginThrottledException if either the username or the IP is currently blocked
+     */
+    public void checkAllowed(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+
+        long retryAfterMs = usernames.retryAfterMs(username, now);
+        if (retryAfterMs > 0) {
+            throw new LoginThrottledException(LoginThrottledException.Dimension.USERNAME, toSeconds(retryAfterMs));
+        }
+        retryAfterMs = ips.retryAfterMs(clientIp, now);
+        if (retryAfterMs > 0) {
+            throw new LoginThrottledException(LoginThrottledException.Dimension.IP, toSeconds(retryAfterMs));
+        }
+    }
+
+    /**
+     * Records a failed login.
+     *
+     * @param passwordMismatch true when the account exists and the password was wrong
+     * @return true when this failure crossed the lock threshold - the caller should lock the account
+     */
+    public boolean recordFailure(String username, String clientIp, boolean passwordMismatch) {
+        if (!enabled) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        usernames.add(username, now);
+        ips.add(clientIp, now);
+
+        if (passwordMismatch && lockCounters != null && lockCounters.add(username, now)) {
+            // Start counting afresh so the lock request fires once per threshold crossing
+            lockCounters.reset(username);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A successful login clears the username's failures; the IP's failures
+     * keep decaying on their own since the address may be shared.
+     */
+    public void recordSuccess(String username) {
+        if (enabled) {
+            usernames.reset(username);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("esb.auth.login.throttle.keys", usernames, FailureCounters::size)
+                .tag("dimension", "username")
+                .register(registry);
+        Gauge.builder("esb.auth.login.throttle.keys", ips, FailureCounters::size)
+                .tag("dimension", "ip")
+                .register(registry);
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(millis + 999));
+    }
+
+    private static final class FailureCounters {
+
+        // key -> epoch millis at which all recorded failures have decayed
+        private final Cache<String, AtomicLong> counters;
+        private final long intervalMs;
+        private final long allowanceMs;
+
+        FailureCounters(LoginProperties.Limit limit, long maximumKeys) {
+            this.intervalMs = Math.max(1, TimeUnit.SECONDS.toMillis(limit.getDecaySeconds()) / limit.getMaxFailures());
+            this.allowanceMs = intervalMs * (limit.getMaxFailures() - 1);
+            this.counters = Caffeine.newBuilder()
+                    .maximumSize(maximumKeys)   // W-TinyLFU: a flood of one-off keys can't evict the hot ones
+                    .expireAfterAccess(Duration.ofSeconds(limit.getDecaySeconds()))
+                    .build();
+        }
+
+        long retryAfterMs(String key, long now) {
+            if (key == null) {
+                return 0;
+            }
+            AtomicLong decayedAt = counters.getIfPresent(key);
+            if (decayedAt == null) {
+                return 0;
+            }
+            return Math.max(0, decayedAt.get() - now - allowanceMs);
+        }
+
+        /**
+         * @return true if the key is over its limit after this failure
+         */
+        boolean add(String key, long now) {
+            if (key == null) {
+                return false;
+            }
+            AtomicLong decayedAt = counters.get(key, k -> new AtomicLong());
+            long previous;
+            long next;
+            do {
+                previous = decayedAt.get();
+                next = Math.max(previous, now) + intervalMs;
+            } while (!decayedAt.compareAndSet(previous, next));
+            return next - now > allowanceMs;
+        }
+
+        void reset(String key) {
+            if (key != null) {
+                counters.invalidate(key);
+            }
+        }
+
+        long size() {
+            return counters.estimatedSize();
+        }
+    }
+}
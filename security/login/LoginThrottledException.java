@@ -0,0 +1,30 @@
+package com.tangazoletu.spotcashesb.security.login;
+
+/**
+ * Thrown before any lookup or hash when a username or client IP has too many
+ * recent failures. Carries no stack trace - it is thrown on every blocked attempt.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final Dimension dimension;
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(Dimension dimension, long retryAfterSeconds) {
+        super("Login throttled by " + dimension, null, false, false);
+        this.dimension = dimension;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public enum Dimension {
+        USERNAME,
+        IP
+    }
+}
@@ -0,0 +1,140 @@
+package com.tangazoletu.spotcashesb.security.login;
+
+import com.tangazoletu.spotcashesb.configuration.security.LoginProperties;
+import com.tangazoletu.spotcashesb.security.metrics.SecurityMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs credential checks (user lookup + password hash) on a small fixed pool
+ * with a bounded queue. A login burst fills this queue and is turned away with
+ * {@link LoginBusyException} instead of occupying every servlet thread, so
+ * token-authenticated traffic keeps flowing.
+ */
+@Component
+@Slf4j
+public class PasswordVerificationExecutor implements MeterBinder {
+
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueWaitMs;
+    private final SecurityMetrics securityMetrics;
+
+    public PasswordVerificationExecutor(LoginProperties loginProperties, SecurityMetrics securityMetrics) {
+        LoginProperties.Hashing config = loginProperties.getHashing();
+        int threads = config.resolveThreads();
+
+        this.maxQueueWaitMs = config.getMaxQueueWaitMs();
+        this.securityMetrics = securityMetrics;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        log.info("Password verification pool: {} threads, queue capacity {}, max queue wait {} ms",
+                threads, config.getQueueCapacity(), maxQueueWaitMs);
+    }
+
+    /**
+     * Runs the check on the hashing pool and waits for its result.
+     * Exceptions thrown by the check (e.g. BadCredentialsException) are rethrown as-is.
+     *
+     * @throws LoginBusyException if the queue is full or the check was not started in time
+     */
+    public <T> T verify(Supplier<T> check) {
+        long enqueuedAt = System.nanoTime();
+        FutureTask<T> task = new FutureTask<>(() -> {
+            securityMetrics.recordLoginQueueWait(enqueuedAt);
+            return check.get();
+        });
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            securityMetrics.recordLoginRejected(LoginBusyException.Reason.QUEUE_FULL);
+            throw new LoginBusyException(LoginBusyException.Reason.QUEUE_FULL);
+        }
+
+        try {
+            return await(task);
+        } catch (InterruptedException e) {
+            task.cancel(false);
+            executor.remove(task);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for credential check", e);
+        }
+    }
+
+    private <T> T await(FutureTask<T> task) throws InterruptedException {
+        try {
+            try {
+                return task.get(maxQueueWaitMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Not started yet - drop it so the hash is never computed for a caller that gave up
+                if (task.cancel(false)) {
+                    executor.remove(task);
+                    securityMetrics.recordLoginRejected(LoginBusyException.Reason.QUEUE_TIMEOUT);
+                    throw new LoginBusyException(LoginBusyException.Reason.QUEUE_TIMEOUT);
+                }
+                // Already hashing - the remaining cost is bounded, let it finish
+                return task.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Credential check failed", cause);
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("esb.auth.login.queue.depth", executor, e -> e.getQueue().size())
+                .description("Credential checks waiting for a hashing thread")
+                .register(registry);
+        Gauge.builder("esb.auth.login.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Credential checks currently hashing")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "login-hash-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
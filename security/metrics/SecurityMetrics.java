@@ -0,0 +1,195 @@
+package com.tangazoletu.spotcashesb.security.metrics;
+
+import com.tangazoletu.spotcashesb.security.jwt.TokenPreValidator;
+import com.tangazoletu.spotcashesb.security.jwt.TokenRejectReason;
+import com.tangazoletu.spotcashesb.security.login.LoginBusyException;
+import com.tangazoletu.spotcashesb.security.login.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and counters for the three security gates and the auth endpoints.
+ * Meters with a fixed tag set are created up front so the request path never
+ * builds a Meter.Id; application/function tags are capped to keep cardinality bounded.
+ */
+@Component
+public class SecurityMetrics {
+
+    // Distinct application / function tag values before we fold the rest into "other"
+    private static final int MAX_TAG_VALUES = 500;
+    private static final String OTHER = "other";
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry registry;
+
+    private final Timer tokenValid;
+    private final Map<TokenRejectReason, Timer> tokenRejected = new EnumMap<>(TokenRejectReason.class);
+    private final Map<TokenPreValidator.Failure, Counter> tokenPreValidationFailures =
+            new EnumMap<>(TokenPreValidator.Failure.class);
+    private final Timer principalLoadSuccess;
+    private final Timer principalLoadFailure;
+    private final Timer ipAllowed;
+    private final Timer ipDenied;
+    private final Timer authorizationAllowed;
+    private final Timer authorizationDenied;
+    private final Timer authorizationUnknownFunction;
+    private final Timer passwordMatch;
+    private final Timer loginQueueWait;
+    private final Map<LoginBusyException.Reason, Counter> loginRejected = new EnumMap<>(LoginBusyException.Reason.class);
+    private final Map<LoginThrottledException.Dimension, Counter> loginThrottled =
+            new EnumMap<>(LoginThrottledException.Dimension.class);
+
+    private final Map<String, Counter> ipViolations = new ConcurrentHashMap<>();
+    private final Map<String, Counter> authorizationDenials = new ConcurrentHashMap<>();
+    private final Map<String, Counter> quotaRejections = new ConcurrentHashMap<>();
+    private final Map<String, Timer> authenticateTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> refreshTimers = new ConcurrentHashMap<>();
+
+    public SecurityMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        this.tokenValid = timer("esb.security.jwt.verify", "outcome", "valid");
+        for (TokenRejectReason reason : TokenRejectReason.values()) {
+            tokenRejected.put(reason, timer("esb.security.jwt.verify", "outcome", tagValue(reason)));
+        }
+        for (TokenPreValidator.Failure failure : TokenPreValidator.Failure.values()) {
+            tokenPreValidationFailures.put(failure, Counter.builder("esb.security.jwt.prevalidation.rejected")
+                    .tag("reason", tagValue(failure))
+                    .register(registry));
+        }
+        this.principalLoadSuccess = timer("esb.security.principal.load", "outcome", "success");
+        this.principalLoadFailure = timer("esb.security.principal.load", "outcome", "failure");
+        this.ipAllowed = timer("esb.security.ip.check", "outcome", "allowed");
+        this.ipDenied = timer("esb.security.ip.check", "outcome", "denied");
+        this.authorizationAllowed = timer("esb.security.authorization.check", "outcome", "allowed");
+        this.authorizationDenied = timer("esb.security.authorization.check", "outcome", "denied");
+        this.authorizationUnknownFunction = timer("esb.security.authorization.check", "outcome", "unknown_function");
+        this.passwordMatch = timer("esb.auth.password.match", "outcome", "completed");
+        this.loginQueueWait = timer("esb.auth.login.queue.wait", "outcome", "started");
+        for (LoginBusyException.Reason reason : LoginBusyException.Reason.values()) {
+            loginRejected.put(reason, Counter.builder("esb.auth.login.rejected")
+                    .tag("reason", tagValue(reason))
+                    .register(registry));
+        }
+        for (LoginThrottledException.Dimension dimension : LoginThrottledException.Dimension.values()) {
+            loginThrottled.put(dimension, Counter.builder("esb.auth.login.throttled")
+                    .tag("dimension", tagValue(dimension))
+                    .register(registry));
+        }
+    }
+
+    public void recordTokenVerification(TokenRejectReason rejectReason, long startNanos) {
+        Timer timer = rejectReason == null ? tokenValid : tokenRejected.get(rejectReason);
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTokenPreValidationFailure(TokenPreValidator.Failure failure) {
+        tokenPreValidationFailures.get(failure).increment();
+    }
+
+    public void recordPrincipalLoad(boolean success, long startNanos) {
+        (success ? principalLoadSuccess : principalLoadFailure)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordIpCheck(boolean allowed, String applicationName, long startNanos) {
+        (allowed ? ipAllowed : ipDenied).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (!allowed) {
+            boundedCounter(ipViolations, "esb.security.ip.violations", "application", applicationName).increment();
+        }
+    }
+
+    /**
+     * @param knownFunctionName the function name if it exists in the registry, otherwise null
+     */
+    public void recordAuthorization(AuthorizationOutcome outcome, String knownFunctionName, long startNanos) {
+        Timer timer = switch (outcome) {
+            case ALLOWED -> authorizationAllowed;
+            case DENIED -> authorizationDenied;
+            case UNKNOWN_FUNCTION -> authorizationUnknownFunction;
+        };
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (outcome != AuthorizationOutcome.ALLOWED) {
+            // Unknown names come straight from the URL - never use them as tag values
+            boundedCounter(authorizationDenials, "esb.security.authorization.denials", "function",
+                    outcome == AuthorizationOutcome.UNKNOWN_FUNCTION ? UNKNOWN : knownFunctionName).increment();
+        }
+    }
+
+    public void recordQuotaRejected(String functionName) {
+        boundedCounter(quotaRejections, "esb.security.quota.rejections", "function", functionName).increment();
+    }
+
+    public void recordPasswordMatch(long startNanos) {
+        passwordMatch.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLoginQueueWait(long enqueuedNanos) {
+        loginQueueWait.record(System.nanoTime() - enqueuedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLoginRejected(LoginBusyException.Reason reason) {
+        loginRejected.get(reason).increment();
+    }
+
+    public void recordLoginThrottled(LoginThrottledException.Dimension dimension) {
+        loginThrottled.get(dimension).increment();
+    }
+
+    /**
+     * @param outcome one of a small fixed set, e.g. success, bad_credentials, disabled, error
+     */
+    public void recordAuthentication(String outcome, long startNanos) {
+        authenticateTimers.computeIfAbsent(outcome, o -> timer("esb.auth.authenticate", "outcome", o))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param outcome one of a small fixed set, e.g. success, invalid_token, disabled, error
+     */
+    public void recordRefresh(String outcome, long startNanos) {
+        refreshTimers.computeIfAbsent(outcome, o -> timer("esb.auth.refresh", "outcome", o))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    private Timer timer(String name, String tagKey, String tagValue) {
+        return Timer.builder(name)
+                .tag(tagKey, tagValue)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Counter boundedCounter(Map<String, Counter> counters, String name, String tagKey, String value) {
+        String tagValue = value == null ? UNKNOWN : value;
+        Counter counter = counters.get(tagValue);
+        if (counter != null) {
+            return counter;
+        }
+        if (counters.size() >= MAX_TAG_VALUES) {
+            tagValue = OTHER;
+        }
+        return counters.computeIfAbsent(tagValue, v -> Counter.builder(name).tag(tagKey, v).register(registry));
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    public enum AuthorizationOutcome {
+        ALLOWED,
+        DENIED,
+        UNKNOWN_FUNCTION
+    }
+}
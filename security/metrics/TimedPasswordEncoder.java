@@ -0,0 +1,38 @@
+package com.tangazoletu.spotcashesb.security.metrics;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Wraps the login PasswordEncoder so the hash check itself is timed,
+ * separately from the user lookup around it.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final SecurityMetrics securityMetrics;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, SecurityMetrics securityMetrics) {
+        this.delegate = delegate;
+        this.securityMetrics = securityMetrics;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            securityMetrics.recordPasswordMatch(start);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
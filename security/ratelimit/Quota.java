@@ -0,0 +1,44 @@
+package com.tangazoletu.spotcashesb.security.ratelimit;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second plus burst for one client calling one function,
+ * pre-converted to the GCRA emission interval and tolerance.
+ */
+@Getter
+@EqualsAndHashCode(of = {"perSecond", "burst"})
+public final class Quota {
+
+    private final int perSecond;
+    private final int burst;
+    private final long emissionIntervalNanos;   // Spacing between requests at the sustained rate
+    private final long toleranceNanos;          // How far ahead of now a client may run
+
+    private Quota(int perSecond, int burst) {
+        this.perSecond = perSecond;
+        this.burst = burst;
+        this.emissionIntervalNanos = Math.max(1, TimeUnit.SECONDS.toNanos(1) / perSecond);
+        this.toleranceNanos = emissionIntervalNanos * burst;
+    }
+
+    /**
+     * @param perSecond sustained rate; null or non-positive = unlimited
+     * @param burst     requests allowed back-to-back; null or non-positive = one second's worth
+     * @return the quota, or {@code null} when unlimited
+     */
+    public static Quota of(Integer perSecond, Integer burst) {
+        if (perSecond == null || perSecond <= 0) {
+            return null;
+        }
+        return new Quota(perSecond, burst != null && burst > 0 ? burst : perSecond);
+    }
+
+    @Override
+    public String toString() {
+        return perSecond + "/s burst " + burst;
+    }
+}
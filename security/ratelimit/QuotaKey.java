@@ -0,0 +1,7 @@
+package com.tangazoletu.spotcashesb.security.ratelimit;
+
+/**
+ * One client calling one function.
+ */
+record QuotaKey(long userId, long configId) {
+}
@@ -0,0 +1,88 @@
+package com.tangazoletu.spotcashesb.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tangazoletu.spotcashesb.configuration.security.QuotaProperties;
+import com.tangazoletu.spotcashesb.security.authorization.ApiFunction;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GCRA limiter per (client, function). Each pair holds one AtomicLong - its
+ * theoretical arrival time - advanced with a CAS loop, so a check is a cache
+ * lookup plus a compare-and-set with no locks and no DB access.
+ * <p>
+ * Limits are read from the registries on every call, so a changed
+ * API_CONFIGS / API_USER_PERMISSION quota applies on the next refresh
+ * without resetting anyone's bucket.
+ */
+@Component
+@Slf4j
+public class QuotaLimiter implements MeterBinder {
+
+    private final boolean enabled;
+    private final QuotaOverrideRegistry overrideRegistry;
+    private final Cache<QuotaKey, AtomicLong> arrivals;
+
+    public QuotaLimiter(QuotaProperties quotaProperties, QuotaOverrideRegistry overrideRegistry) {
+        this.enabled = quotaProperties.isEnabled();
+        this.overrideRegistry = overrideRegistry;
+        this.arrivals = Caffeine.newBuilder()
+                .maximumSize(quotaProperties.getMaximumKeys())
+                .expireAfterAccess(Duration.ofSeconds(quotaProperties.getIdleExpirySeconds()))
+                .build();
+
+        log.info("Per-client quotas {} (maximum keys: {})",
+                enabled ? "enabled" : "disabled", quotaProperties.getMaximumKeys());
+    }
+
+    /**
+     * Takes one request from the client's allowance for this function.
+     *
+     * @return 0 if the request may proceed, otherwise nanoseconds until it would be allowed
+     */
+    public long tryAcquire(long userId, ApiFunction function) {
+        if (!enabled) {
+            return 0;
+        }
+        QuotaKey key = new QuotaKey(userId, function.getConfigId());
+        Quota quota = overrideRegistry.find(key);
+        if (quota == null) {
+            quota = function.getQuota();
+            if (quota == null) {
+                return 0;
+            }
+        }
+
+        long now = System.nanoTime();
+        AtomicLong arrival = arrivals.get(key, k -> new AtomicLong(now));
+        long previous;
+        long next;
+        do {
+            previous = arrival.get();
+            next = (previous - now > 0 ? previous : now) + quota.getEmissionIntervalNanos();
+            long ahead = next - now;
+            if (ahead > quota.getToleranceNanos()) {
+                // Rejected requests don't consume allowance
+                return ahead - quota.getToleranceNanos();
+            }
+        } while (!arrival.compareAndSet(previous, next));
+        return 0;
+    }
+
+    public long size() {
+        return arrivals.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("esb.security.quota.keys", this, QuotaLimiter::size)
+                .register(registry);
+    }
+}
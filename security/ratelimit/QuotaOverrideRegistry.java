@@ -0,0 +1,96 @@
+package com.tangazoletu.spotcashesb.security.ratelimit;
+
+import com.tangazoletu.spotcashesb.repositories.ApiUserPermissionRepository;
+import com.tangazoletu.spotcashesb.repositories.projection.QuotaOverrideView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory (userId, configId) -> Quota snapshot of the API_USER_PERMISSION rows
+ * that override their function's default rate limit. Replaced wholesale on
+ * refresh like {@link com.tangazoletu.spotcashesb.security.authorization.ApiFunctionRegistry},
+ * so the request path never touches the database.
+ */
+@Component
+@Slf4j
+public class QuotaOverrideRegistry implements MeterBinder {
+
+    private final ApiUserPermissionRepository permissionRepository;
+
+    // Programmatic for the same reason as ApiFunctionRegistry: refresh() is mostly self-invoked
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Map<QuotaKey, Quota> overrides = Map.of();
+
+    public QuotaOverrideRegistry(ApiUserPermissionRepository permissionRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.permissionRepository = permissionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${esb.security.function-registry.refresh-interval-ms:60000}",
+               initialDelayString = "${esb.security.function-registry.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Rebuilds the snapshot from the database. On failure the previous snapshot is kept.
+     */
+    public void refresh() {
+        try {
+            List<QuotaOverrideView> rows = readOnlyTransaction.execute(
+                    status -> permissionRepository.findQuotaOverrides());
+
+            Map<QuotaKey, Quota> snapshot = new HashMap<>(rows.size() * 2);
+            for (QuotaOverrideView row : rows) {
+                Quota quota = Quota.of(row.getRateLimitPerSecond(), row.getRateLimitBurst());
+                if (quota != null) {
+                    snapshot.put(new QuotaKey(row.getApiUserId(), row.getApiConfigId()), quota);
+                }
+            }
+
+            overrides = Map.copyOf(snapshot);
+            log.info("Quota overrides refreshed: {} per-client limits", snapshot.size());
+
+        } catch (Exception e) {
+            log.error("Failed to refresh quota overrides, keeping previous snapshot: {}",
+                    e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the client's own quota for this function, or {@code null} to use the function default
+     */
+    Quota find(QuotaKey key) {
+        Map<QuotaKey, Quota> current = overrides;
+        return current.isEmpty() ? null : current.get(key);
+    }
+
+    public int size() {
+        return overrides.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("esb.security.quota.overrides.size", this, QuotaOverrideRegistry::size)
+                .register(registry);
+    }
+}
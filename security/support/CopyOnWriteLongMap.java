@@ -0,0 +1,195 @@
+package com.tangazoletu.spotcashesb.security.support;
+
+import java.util.Arrays;
+
+/**
+ * A long -> long map for read-mostly security state (per-user versions, epochs).
+ * Reads hit an immutable open-addressing snapshot through a volatile field: no
+ * locks, no boxing, no allocation. Writes are rare admin events and copy the table;
+ * bulk changes go through {@link #putMaxAll} so a batch costs one copy, not one per key.
+ */
+public final class CopyOnWriteLongMap {
+
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+    private volatile Table table = new Table(new long[0], new long[0], 0);
+
+    /**
+     * @return the mapped value, or {@code defaultValue} if the key is absent
+     */
+    public long get(long key, long defaultValue) {
+        return table.get(key, defaultValue);
+    }
+
+    /**
+     * Sets {@code key} to the larger of its current value and {@code value}.
+     *
+     * @return the value now mapped
+     */
+    public synchronized long putMax(long key, long value) {
+        if (key == EMPTY_KEY) {
+            throw new IllegalArgumentException("Reserved key: " + key);
+        }
+        Table current = table;
+        long existing = current.get(key, Long.MIN_VALUE);
+        if (existing >= value) {
+            return existing;
+        }
+        table = current.with(key, value);
+        return value;
+    }
+
+    /**
+     * Bulk {@link #putMax(long, long)}: every key is set to the larger of its current
+     * value and {@code value}, with one table copy for the whole batch.
+     */
+    public void putMaxAll(long[] keys, long value) {
+        long[] values = new long[keys.length];
+        Arrays.fill(values, value);
+        putMaxAll(keys, values);
+    }
+
+    /**
+     * Bulk {@link #putMax(long, long)} with a value per key; {@code keys} may repeat.
+     */
+    public synchronized void putMaxAll(long[] keys, long[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length");
+        }
+        for (long key : keys) {
+            if (key == EMPTY_KEY) {
+                throw new IllegalArgumentException("Reserved key: " + key);
+            }
+        }
+        Table current = table;
+        Table updated = current.withAll(keys, values);
+        if (updated != null) {
+            table = updated;
+        }
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    private static final class Table {
+        private final long[] keys;
+        private final long[] values;
+        private final int size;
+        private final int mask;
+
+        Table(long[] keys, long[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+            this.mask = keys.length - 1;
+        }
+
+        long get(long key, long defaultValue) {
+            if (keys.length == 0 || key == EMPTY_KEY) {
+                return defaultValue;
+            }
+            int slot = mix(key) & mask;
+            while (true) {
+                long k = keys[slot];
+                if (k == key) {
+                    return values[slot];
+                }
+                if (k == EMPTY_KEY) {
+                    return defaultValue;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        Table with(long key, long value) {
+            int newSize = get(key, Long.MIN_VALUE) == Long.MIN_VALUE ? size + 1 : size;
+            // Keep load factor <= 0.5
+            int capacity = Math.max(keys.length, 16);
+            while (capacity < newSize * 2) {
+                capacity <<= 1;
+            }
+
+            long[] newKeys = new long[capacity];
+            long[] newValues = new long[capacity];
+            Arrays.fill(newKeys, EMPTY_KEY);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY_KEY) {
+                    insert(newKeys, newValues, keys[i], values[i]);
+                }
+            }
+            insert(newKeys, newValues, key, value);
+            return new Table(newKeys, newValues, newSize);
+        }
+
+        /**
+         * @return the table with every key raised to at least its value, or {@code null} if none moved
+         */
+        Table withAll(long[] newKeys, long[] newValues) {
+            // Upper bound on the size - duplicates and existing keys only make it smaller
+            int maxSize = size;
+            boolean changed = false;
+            for (int i = 0; i < newKeys.length; i++) {
+                long existing = get(newKeys[i], Long.MIN_VALUE);
+                if (existing == Long.MIN_VALUE) {
+                    maxSize++;
+                }
+                changed |= existing < newValues[i];
+            }
+            if (!changed) {
+                return null;
+            }
+
+            int capacity = Math.max(keys.length, 16);
+            while (capacity < maxSize * 2) {
+                capacity <<= 1;
+            }
+
+            long[] copyKeys = new long[capacity];
+            long[] copyValues = new long[capacity];
+            Arrays.fill(copyKeys, EMPTY_KEY);
+            int newSize = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY_KEY) {
+                    insert(copyKeys, copyValues, keys[i], values[i]);
+                    newSize++;
+                }
+            }
+            for (int i = 0; i < newKeys.length; i++) {
+                newSize += insertMax(copyKeys, copyValues, newKeys[i], newValues[i]);
+            }
+            return new Table(copyKeys, copyValues, newSize);
+        }
+
+        private static void insert(long[] keys, long[] values, long key, long value) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY_KEY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        // @return 1 if the key was added, 0 if it was already present
+        private static int insertMax(long[] keys, long[] values, long key, long value) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY_KEY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == key) {
+                values[slot] = Math.max(values[slot], value);
+                return 0;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            return 1;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.tangazoletu.spotcashesb.security.userdetails;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of permitted ApiConfig IDs backed by primitives.
+ * IDs come from a sequence and are usually small and dense, so a bitmap gives
+ * O(1) lookups; if any ID is too large for a compact bitmap we fall back to
+ * binary search over the sorted IDs.
+ */
+public final class ConfigIdSet {
+
+    // Largest ID we will index with a bitmap (8 KB per user at most)
+    private static final long MAX_BITMAP_ID = 65_535;
+
+    private static final ConfigIdSet EMPTY = new ConfigIdSet(new long[0], new long[0]);
+
+    private final long[] sortedIds;
+    private final long[] bitmap;    // null when IDs are too large/sparse
+
+    private ConfigIdSet(long[] sortedIds, long[] bitmap) {
+        this.sortedIds = sortedIds;
+        this.bitmap = bitmap;
+    }
+
+    public static ConfigIdSet of(Collection<Long> configIds) {
+        if (configIds == null || configIds.isEmpty()) {
+            return EMPTY;
+        }
+        return of(configIds.stream()
+                .filter(id -> id != null && id >= 0)
+                .mapToLong(Long::longValue)
+                .toArray());
+    }
+
+    public static ConfigIdSet of(long[] configIds) {
+        long[] sorted = Arrays.stream(configIds).filter(id -> id >= 0).sorted().distinct().toArray();
+        if (sorted.length == 0) {
+            return EMPTY;
+        }
+
+        long maxId = sorted[sorted.length - 1];
+        if (maxId > MAX_BITMAP_ID) {
+            return new ConfigIdSet(sorted, null);
+        }
+
+        long[] bitmap = new long[(int) (maxId >>> 6) + 1];
+        for (long id : sorted) {
+            bitmap[(int) (id >>> 6)] |= 1L << id;
+        }
+        return new ConfigIdSet(sorted, bitmap);
+    }
+
+    public boolean contains(long configId) {
+        // Range-check before narrowing: (int) (configId >>> 6) wraps for huge IDs and could land on a set bit
+        if (bitmap != null && configId >= 0 && configId <= MAX_BITMAP_ID) {
+            int word = (int) (configId >>> 6);
+            return word < bitmap.length && (bitmap[word] & (1L << configId)) != 0;
+        }
+        return Arrays.binarySearch(sortedIds, configId) >= 0;
+    }
+
+    public int size() {
+        return sortedIds.length;
+    }
+
+    public boolean isEmpty() {
+        return sortedIds.length == 0;
+    }
+
+    /**
+     * @return the IDs in ascending order (a copy)
+     */
+    public long[] toArray() {
+        return sortedIds.clone();
+    }
+}
@@ -1,27 +1,175 @@
 package com.tangazoletu.spotcashesb.security.userdetails;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tangazoletu.spotcashesb.configuration.datasource.ReadReplicaProperties;
+import com.tangazoletu.spotcashesb.configuration.security.SecurityCacheProperties;
 import com.tangazoletu.spotcashesb.entity.ApiUser;
+import com.tangazoletu.spotcashesb.event.ApiUserChangedEvent;
+import com.tangazoletu.spotcashesb.event.ApiUsersChangedEvent;
 import com.tangazoletu.spotcashesb.repositories.ApiUserPermissionRepository;
 import com.tangazoletu.spotcashesb.repositories.ApiUserRepository;
-import lombok.RequiredArgsConstructor;
+import com.tangazoletu.spotcashesb.security.jfr.PrincipalLoadEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, MeterBinder {
 
     private final ApiUserRepository apiUserRepository;
     private final ApiUserPermissionRepository permissionRepository;
 
+    // username -> SecurityUser; null when caching is disabled
+    private final Cache<String, SecurityUser> principalCache;
+
+    // Incremented on every eviction; a load only caches its result if this didn't move meanwhile
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // Read-only transactions are routed to a replica when replicas are configured
+    private final TransactionTemplate replicaRead;
+    private final TransactionTemplate primaryRead;
+
+    // Users changed within the replica lag window - their reloads must see the primary; null without replicas
+    private final Cache<String, Boolean> recentlyChanged;
+
+    public CustomUserDetailsService(ApiUserRepository apiUserRepository,
+                                    ApiUserPermissionRepository permissionRepository,
+                                    SecurityCacheProperties cacheProperties,
+                                    ReadReplicaProperties replicaProperties,
+                                    PlatformTransactionManager transactionManager) {
+        this.apiUserRepository = apiUserRepository;
+        this.permissionRepository = permissionRepository;
+
+        this.replicaRead = new TransactionTemplate(transactionManager);
+        this.replicaRead.setReadOnly(true);
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.recentlyChanged = replicaProperties.isEnabled()
+                ? Caffeine.newBuilder()
+                        .expireAfterWrite(Duration.ofSeconds(replicaProperties.getMaxLagSeconds())
+                                .plusMillis(replicaProperties.getCheckIntervalMs()))
+                        .maximumSize(10_000)
+                        .build()
+                : null;
+
+        SecurityCacheProperties.Principal config = cacheProperties.getPrincipal();
+        this.principalCache = config.isEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(config.getMaximumSize())
+                        .expireAfterWrite(Duration.ofSeconds(config.getTtlSeconds()))
+                        .recordStats()
+                        .build()
+                : null;
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        PrincipalLoadEvent event = new PrincipalLoadEvent();
+        event.begin();
+
+        SecurityUser user = null;
+        boolean cacheHit = false;
+        try {
+            if (principalCache == null) {
+                user = loadFromDatabase(username);
+            } else {
+                user = principalCache.getIfPresent(username);
+                cacheHit = user != null;
+                if (!cacheHit) {
+                    user = loadAndCache(username);
+                }
+            }
+            return user;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.username = username;
+                event.application = user != null ? user.getApiUser().getApplicationName() : null;
+                event.cacheHit = cacheHit;
+                event.decision = user != null ? "LOADED" : "NOT_FOUND";
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Loads outside the cache's compute lock: a JDBC call inside Caffeine's loader
+     * runs under a ConcurrentHashMap bin lock, which pins a virtual thread's carrier
+     * for the whole query. Concurrent misses for one user may both hit the database;
+     * that is cheaper than serializing them.
+     */
+    private SecurityUser loadAndCache(String username) {
+        long generation = invalidations.get();
+        // Not-found is thrown from here and therefore never cached
+        SecurityUser loaded = loadFromDatabase(username);
+
+        // Only cache if nothing was evicted while we were loading - the row we read may be stale.
+        // The compute is in-memory only, so holding the bin lock here is brief.
+        principalCache.asMap().compute(username,
+                (key, existing) -> invalidations.get() == generation ? loaded : existing);
+        return loaded;
+    }
+
+    /**
+     * Drops the cached principal so the next request reloads it from the database.
+     */
+    public void evict(String username) {
+        if (principalCache != null) {
+            // Bump first so a load that started before this eviction won't re-cache its result
+            invalidations.incrementAndGet();
+            principalCache.invalidate(username);
+            log.debug("Evicted cached principal: '{}'", username);
+        }
+    }
+
+    // Fires after the admin transaction commits, so a concurrent reload cannot re-cache stale rows
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApiUserChanged(ApiUserChangedEvent event) {
+        if (recentlyChanged != null) {
+            // A replica may not have the change yet - don't re-cache the old row from it
+            recentlyChanged.put(event.getUsername(), Boolean.TRUE);
+        }
+        evict(event.getUsername());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApiUsersChanged(ApiUsersChangedEvent event) {
+        if (recentlyChanged != null) {
+            event.getUsernames().forEach(username -> recentlyChanged.put(username, Boolean.TRUE));
+        }
+        if (principalCache != null) {
+            invalidations.incrementAndGet();
+            principalCache.invalidateAll(event.getUsernames());
+            log.debug("Evicted {} cached principals ({})", event.getUsernames().size(), event.getChangeType());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (principalCache != null) {
+            CaffeineCacheMetrics.monitor(registry, principalCache, "principals");
+        }
+    }
+
+    private SecurityUser loadFromDatabase(String username) {
+        boolean needsPrimary = recentlyChanged != null && recentlyChanged.getIfPresent(username) != null;
+        return (needsPrimary ? primaryRead : replicaRead).execute(status -> queryUser(username));
+    }
+
+    private SecurityUser queryUser(String username) {
         log.debug("Loading user: '{}'", username);
 
         ApiUser apiUser = apiUserRepository.findByUsername(username)
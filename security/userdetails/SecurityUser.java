@@ -2,33 +2,58 @@ package com.tangazoletu.spotcashesb.security.userdetails;
 
 import com.tangazoletu.spotcashesb.entity.ApiUser;
 import com.tangazoletu.spotcashesb.entity.enums.ApiUserStatus;
+import com.tangazoletu.spotcashesb.security.ip.IpWhitelist;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Getter
 public class SecurityUser implements UserDetails {
 
     private final ApiUser apiUser;
-    private final List<Long> allowedConfigIds;  // Passed in from CustomUserDetailsService
+    private final ConfigIdSet permittedConfigIds;  // Passed in from CustomUserDetailsService
+    private final IpWhitelist ipWhitelist;         // Compiled once, cached with the principal
+
+    // Materialised on first use only - the authorization gate uses isPermitted() instead
+    @Getter(AccessLevel.NONE)
+    private transient volatile List<GrantedAuthority> authorities;
 
     public SecurityUser(ApiUser apiUser, List<Long> allowedConfigIds) {
+        this(apiUser, ConfigIdSet.of(allowedConfigIds), IpWhitelist.compile(apiUser.getWhitelistedIps()));
+    }
+
+    // Used when the principal is rebuilt from verified token claims
+    public SecurityUser(ApiUser apiUser, ConfigIdSet permittedConfigIds, IpWhitelist ipWhitelist) {
         this.apiUser = apiUser;
-        this.allowedConfigIds = allowedConfigIds;
+        this.permittedConfigIds = permittedConfigIds;
+        this.ipWhitelist = ipWhitelist;
+    }
+
+    /**
+     * Fast path for ApiAuthorizationFilter - no strings, no allocation.
+     */
+    public boolean isPermitted(long configId) {
+        return permittedConfigIds.contains(configId);
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         // Each authority is a config ID the user is allowed to call
-        // ApiAuthorizationFilter will check these against the requested function's config ID
-        return allowedConfigIds.stream()
-                .map(configId -> new SimpleGrantedAuthority(String.valueOf(configId)))
-                .collect(Collectors.toList());
+        List<GrantedAuthority> result = authorities;
+        if (result == null) {
+            // Benign race: concurrent callers build equal immutable lists
+            result = Arrays.stream(permittedConfigIds.toArray())
+                    .mapToObj(configId -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(configId)))
+                    .toList();
+            authorities = result;
+        }
+        return result;
     }
 
     @Override
@@ -61,4 +86,4 @@ public class SecurityUser implements UserDetails {
     public boolean isEnabled() {
         return apiUser.getStatus() == ApiUserStatus.ACTIVE;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package com.tangazoletu.spotcashesb.security.userdetails;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Authenticated token for a SecurityUser. Unlike UsernamePasswordAuthenticationToken
+ * it does not copy the authority list on construction - it hands out the
+ * principal's lazily built, shared list.
+ */
+public class SecurityUserAuthentication implements Authentication {
+
+    private final SecurityUser principal;
+    private final Object credentials;   // the VerifiedToken for JWT-authenticated requests
+    private Object details;
+    private boolean authenticated = true;
+
+    public SecurityUserAuthentication(SecurityUser principal, Object credentials) {
+        this.principal = principal;
+        this.credentials = credentials;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return principal.getAuthorities();
+    }
+
+    @Override
+    public Object getCredentials() {
+        return credentials;
+    }
+
+    @Override
+    public Object getDetails() {
+        return details;
+    }
+
+    public void setDetails(Object details) {
+        this.details = details;
+    }
+
+    @Override
+    public SecurityUser getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    @Override
+    public void setAuthenticated(boolean isAuthenticated) {
+        if (isAuthenticated) {
+            throw new IllegalArgumentException("Cannot mark this token as trusted - use the constructor instead");
+        }
+        this.authenticated = false;
+    }
+
+    @Override
+    public String getName() {
+        return principal.getUsername();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [Principal=" + getName() + ", Authenticated=" + authenticated + "]";
+    }
+}
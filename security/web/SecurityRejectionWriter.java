@@ -0,0 +1,110 @@
+package com.tangazoletu.spotcashesb.security.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tangazoletu.spotcashesb.dto.SimpleApiResponse;
+import com.tangazoletu.spotcashesb.security.jwt.TokenRejectReason;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.access.AccessDeniedHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Writes security rejections straight to the response from bodies serialized once
+ * at startup. Unlike {@code sendError} there is no ERROR dispatch to {@code /error},
+ * so a rejected request does not run the filter chain and the MVC error controller
+ * a second time. Also the entry point for unauthenticated requests, using the
+ * {@link #REJECTION_ATTRIBUTE} left by the token filter to say why.
+ */
+@Component
+@Slf4j
+public class SecurityRejectionWriter implements AuthenticationEntryPoint, AccessDeniedHandler {
+
+    // Set by the token filter when a bearer token was presented but not accepted
+    public static final String REJECTION_ATTRIBUTE = SecurityRejectionWriter.class.getName() + ".REJECTION";
+
+    private final Map<Rejection, byte[]> bodies = new EnumMap<>(Rejection.class);
+
+    public SecurityRejectionWriter(ObjectMapper objectMapper) {
+        for (Rejection rejection : Rejection.values()) {
+            try {
+                bodies.put(rejection, objectMapper.writeValueAsBytes(
+                        SimpleApiResponse.failure(rejection.getMessage())));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot serialize rejection body for " + rejection, e);
+            }
+        }
+    }
+
+    public void reject(HttpServletResponse response, Rejection rejection) throws IOException {
+        if (response.isCommitted()) {
+            log.debug("Response already committed, cannot write {} rejection", rejection);
+            return;
+        }
+        byte[] body = bodies.get(rejection);
+        response.setStatus(rejection.getStatus().value());
+        if (rejection.getStatus() == HttpStatus.UNAUTHORIZED) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Records why the presented token was not accepted, for the entry point to report.
+     */
+    public static void markRejected(HttpServletRequest request, Rejection rejection) {
+        request.setAttribute(REJECTION_ATTRIBUTE, rejection);
+    }
+
+    @Override
+    public void commence(HttpServletRequest request, HttpServletResponse response,
+                         AuthenticationException authException) throws IOException {
+        Object marked = request.getAttribute(REJECTION_ATTRIBUTE);
+        reject(response, marked instanceof Rejection rejection ? rejection : Rejection.AUTHENTICATION_REQUIRED);
+    }
+
+    @Override
+    public void handle(HttpServletRequest request, HttpServletResponse response,
+                       AccessDeniedException accessDeniedException) throws IOException {
+        reject(response, Rejection.ACCESS_DENIED);
+    }
+
+    @Getter
+    public enum Rejection {
+        AUTHENTICATION_REQUIRED(HttpStatus.UNAUTHORIZED, "Authentication required"),
+        TOKEN_EXPIRED(HttpStatus.UNAUTHORIZED, "Token expired"),
+        INVALID_TOKEN(HttpStatus.UNAUTHORIZED, "Invalid token"),
+        ACCOUNT_INACTIVE(HttpStatus.UNAUTHORIZED, "Account is not active"),
+        IP_NOT_WHITELISTED(HttpStatus.FORBIDDEN, "Access denied: IP address not whitelisted"),
+        UNAUTHORIZED_FUNCTION(HttpStatus.FORBIDDEN, "Unauthorized access to the API"),
+        ACCESS_DENIED(HttpStatus.FORBIDDEN, "Access denied"),
+        QUOTA_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS, "Request quota exceeded");
+
+        private final HttpStatus status;
+        private final String message;
+
+        Rejection(HttpStatus status, String message) {
+            this.status = status;
+            this.message = message;
+        }
+
+        // Expired tokens get their own message so clients know to re-authenticate; the rest stay vague
+        public static Rejection forToken(TokenRejectReason reason) {
+            return reason == TokenRejectReason.EXPIRED ? TOKEN_EXPIRED : INVALID_TOKEN;
+        }
+    }
+}
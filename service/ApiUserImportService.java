@@ -0,0 +1,420 @@
+package com.tangazoletu.spotcashesb.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tangazoletu.spotcashesb.configuration.admin.AdminBulkProperties;
+import com.tangazoletu.spotcashesb.converter.IpListConverter;
+import com.tangazoletu.spotcashesb.dto.CreateApiUserRequest;
+import com.tangazoletu.spotcashesb.dto.ImportRowResult;
+import com.tangazoletu.spotcashesb.dto.SimpleApiResponse;
+import com.tangazoletu.spotcashesb.entity.enums.ApiUserStatus;
+import com.tangazoletu.spotcashesb.repositories.ApiConfigRepository;
+import com.tangazoletu.spotcashesb.repositories.ApiUserRepository;
+import com.tangazoletu.spotcashesb.security.ip.IpWhitelist;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a bulk user import: rows are parsed and validated as they arrive,
+ * written in JDBC batches of {@code esb.admin.bulk.batch-size}, and a result
+ * line per row is flushed back after each batch. Memory is bounded by the
+ * batch size plus the set of usernames seen so far.
+ * <p>
+ * Per batch: one IN query for existing usernames, one sequence round trip per
+ * table for IDs, passwords hashed in parallel, and one transaction with two
+ * batched inserts.
+ */
+@Service
+@Slf4j
+public class ApiUserImportService {
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    private static final String INSERT_USER = """
+        INSERT INTO API_USER (ID, USERNAME, PASSWORD, APPLICATION_NAME, STATUS,
+                              WHITELISTED_IPS, DATE_CREATED, DATE_UPDATED)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String INSERT_PERMISSION =
+            "INSERT INTO API_USER_PERMISSION (ID, API_USER_ID, API_CONFIG_ID) VALUES (?, ?, ?)";
+
+    // Allocates a whole batch of IDs in one round trip instead of one NEXTVAL per row
+    private static final String NEXT_IDS = "SELECT %s.NEXTVAL FROM DUAL CONNECT BY LEVEL <= ?";
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApiUserRepository apiUserRepository;
+    private final ApiConfigRepository apiConfigRepository;
+    private final IpListConverter ipListConverter = new IpListConverter();
+    private final int batchSize;
+    private final ExecutorService hashPool;
+
+    public ApiUserImportService(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                PasswordEncoder passwordEncoder,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                ApiUserRepository apiUserRepository,
+                                ApiConfigRepository apiConfigRepository,
+                                AdminBulkProperties bulkProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.apiUserRepository = apiUserRepository;
+        this.apiConfigRepository = apiConfigRepository;
+        this.batchSize = bulkProperties.getBatchSize();
+
+        AtomicInteger sequence = new AtomicInteger();
+        this.hashPool = Executors.newFixedThreadPool(bulkProperties.resolveHashThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "import-hash-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public enum Format {
+        NDJSON,     // One CreateApiUserRequest JSON object per line
+        CSV         // Header line, then username,password,applicationName,whitelistedIps,permissionIds
+                    // with list values separated by ';'
+    }
+
+    /**
+     * Reads rows from {@code body} until EOF, writing one {@link ImportRowResult} per row
+     * and a final summary line to {@code out} as NDJSON.
+     */
+    public void importUsers(BufferedReader body, Format format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        Set<Long> knownConfigIds = new HashSet<>(apiConfigRepository.findAllIds());
+        Set<String> seenUsernames = new HashSet<>();
+        int[] totals = new int[2];   // created, failed
+
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        Map<String, Integer> csvColumns = null;
+        String line;
+        int lineNumber = 0;
+
+        while ((line = body.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && csvColumns == null) {
+                csvColumns = parseCsvHeader(line);
+                continue;
+            }
+
+            batch.add(format == Format.CSV
+                    ? parseCsvRow(lineNumber, line, csvColumns)
+                    : parseJsonRow(lineNumber, line));
+
+            if (batch.size() == batchSize) {
+                writeResults(processBatch(batch, seenUsernames, knownConfigIds), out, totals);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeResults(processBatch(batch, seenUsernames, knownConfigIds), out, totals);
+        }
+
+        Map<String, Object> summary = Map.of(
+                "created", totals[0],
+                "failed", totals[1],
+                "durationMs", System.currentTimeMillis() - start);
+        out.write(objectMapper.writeValueAsBytes(SimpleApiResponse.success("Import finished", summary)));
+        out.write(NEWLINE);
+        out.flush();
+
+        log.info("Bulk import finished: {} created, {} failed in {} ms",
+                totals[0], totals[1], System.currentTimeMillis() - start);
+    }
+
+    private List<ImportRowResult> processBatch(List<ImportRow> batch, Set<String> seenUsernames,
+                                               Set<Long> knownConfigIds) {
+        List<ImportRowResult> results = new ArrayList<>(batch.size());
+        List<ImportRow> candidates = new ArrayList<>(batch.size());
+
+        for (ImportRow row : batch) {
+            String error = row.error != null ? row.error : validate(row.request, knownConfigIds);
+            if (error == null && !seenUsernames.add(row.request.getUsername())) {
+                error = "Duplicate username in import";
+            }
+            if (error != null) {
+                results.add(failed(row, error));
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            Set<String> existing = new HashSet<>(apiUserRepository.findExistingUsernames(
+                    candidates.stream().map(row -> row.request.getUsername()).collect(Collectors.toList())));
+            if (!existing.isEmpty()) {
+                candidates.removeIf(row -> {
+                    if (existing.contains(row.request.getUsername())) {
+                        results.add(failed(row, "Username already exists"));
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            results.addAll(insert(candidates));
+        }
+
+        results.sort(Comparator.comparingInt(ImportRowResult::getLine));
+        return results;
+    }
+
+    private List<ImportRowResult> insert(List<ImportRow> rows) {
+        // BCrypt dominates the cost of an import - spread it over the hashing pool
+        List<CompletableFuture<String>> hashes = rows.stream()
+                .map(row -> CompletableFuture.supplyAsync(
+                        () -> passwordEncoder.encode(row.request.getPassword()), hashPool))
+                .collect(Collectors.toList());
+
+        int permissionCount = rows.stream().mapToInt(row -> permissionIds(row.request).size()).sum();
+        List<Long> userIds = nextIds("API_USER_SEQ", rows.size());
+        List<Long> permissionIds = nextIds("API_USER_PERMISSION_SEQ", permissionCount);
+
+        List<Object[]> userArgs = new ArrayList<>(rows.size());
+        List<Object[]> permissionArgs = new ArrayList<>(permissionCount);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int permissionIndex = 0;
+
+        for (int i = 0; i < rows.size(); i++) {
+            CreateApiUserRequest request = rows.get(i).request;
+            long userId = userIds.get(i);
+            userArgs.add(new Object[]{
+                    userId,
+                    request.getUsername(),
+                    hashes.get(i).join(),
+                    request.getApplicationName(),
+                    ApiUserStatus.ACTIVE.name(),
+                    ipListConverter.convertToDatabaseColumn(request.getWhitelistedIps()),
+                    now,
+                    now
+            });
+            for (Long configId : permissionIds(request)) {
+                permissionArgs.add(new Object[]{permissionIds.get(permissionIndex++), userId, configId});
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_USER, userArgs);
+                if (!permissionArgs.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_PERMISSION, permissionArgs);
+                }
+            });
+        } catch (DataAccessException e) {
+            // Typically a username created concurrently - the whole batch rolled back
+            log.warn("Bulk import batch of {} rows failed: {}", rows.size(), e.getMostSpecificCause().getMessage());
+            String error = "Batch insert failed: " + e.getMostSpecificCause().getMessage();
+            return rows.stream().map(row -> failed(row, error)).collect(Collectors.toList());
+        }
+
+        List<ImportRowResult> results = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            results.add(ImportRowResult.builder()
+                    .line(row.line)
+                    .username(row.request.getUsername())
+                    .status(ImportRowResult.CREATED)
+                    .id(userIds.get(i))
+                    .permissionsGranted(permissionIds(row.request).size())
+                    .build());
+        }
+        return results;
+    }
+
+    private List<Long> nextIds(String sequence, int count) {
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.queryForList(String.format(NEXT_IDS, sequence), Long.class, count);
+    }
+
+    private String validate(CreateApiUserRequest request, Set<Long> knownConfigIds) {
+        Set<ConstraintViolation<CreateApiUserRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        List<String> invalidIps = IpWhitelist.invalidEntries(request.getWhitelistedIps());
+        if (!invalidIps.isEmpty()) {
+            return "Invalid IP whitelist entries: " + invalidIps;
+        }
+        List<Long> unknown = permissionIds(request).stream()
+                .filter(configId -> !knownConfigIds.contains(configId))
+                .collect(Collectors.toList());
+        return unknown.isEmpty() ? null : "Unknown config IDs: " + unknown;
+    }
+
+    private void writeResults(List<ImportRowResult> results, OutputStream out, int[] totals) throws IOException {
+        for (ImportRowResult result : results) {
+            totals[ImportRowResult.CREATED.equals(result.getStatus()) ? 0 : 1]++;
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write(NEWLINE);
+        }
+        // Let the client see progress batch by batch
+        out.flush();
+    }
+
+    private ImportRow parseJsonRow(int lineNumber, String line) {
+        try {
+            CreateApiUserRequest request = objectMapper.readValue(line, CreateApiUserRequest.class);
+            // A bare "null" line parses without error - it is still not a user
+            return request != null
+                    ? new ImportRow(lineNumber, request, null)
+                    : new ImportRow(lineNumber, null, "Malformed JSON");
+        } catch (IOException e) {
+            return new ImportRow(lineNumber, null, "Malformed JSON");
+        }
+    }
+
+    private static Map<String, Integer> parseCsvHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        return columns;
+    }
+
+    private static ImportRow parseCsvRow(int lineNumber, String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        CreateApiUserRequest request = new CreateApiUserRequest();
+        request.setUsername(column(fields, columns, "username"));
+        request.setPassword(column(fields, columns, "password"));
+        request.setApplicationName(column(fields, columns, "applicationname"));
+        request.setWhitelistedIps(listColumn(fields, columns, "whitelistedips"));
+
+        List<String> permissionIds = listColumn(fields, columns, "permissionids");
+        if (permissionIds != null) {
+            try {
+                request.setPermissionIds(permissionIds.stream().map(Long::valueOf).collect(Collectors.toList()));
+            } catch (NumberFormatException e) {
+                return new ImportRow(lineNumber, request, "permissionIds must be numeric");
+            }
+        }
+        return new ImportRow(lineNumber, request, null);
+    }
+
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<String> listColumn(List<String> fields, Map<String, Integer> columns, String name) {
+        String value = column(fields, columns, name);
+        if (value == null) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        for (String part : value.split(";")) {
+            if (!part.isBlank()) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+
+    // RFC 4180 field splitting for a single line: quoted fields, "" as an escaped quote
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static List<Long> permissionIds(CreateApiUserRequest request) {
+        List<Long> ids = request.getPermissionIds();
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // The unique constraint would reject the whole batch over one repeated ID
+        return ids.stream().distinct().collect(Collectors.toList());
+    }
+
+    private static ImportRowResult failed(ImportRow row, String error) {
+        return ImportRowResult.builder()
+                .line(row.line)
+                .username(row.request != null ? row.request.getUsername() : null)
+                .status(ImportRowResult.FAILED)
+                .error(error)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdown();
+    }
+
+    private record ImportRow(int line, CreateApiUserRequest request, String error) {
+    }
+}
@@ -0,0 +1,140 @@
+package com.tangazoletu.spotcashesb.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tangazoletu.spotcashesb.converter.IpListConverter;
+import com.tangazoletu.spotcashesb.dto.ApiUserFilter;
+import com.tangazoletu.spotcashesb.dto.ApiUserPage;
+import com.tangazoletu.spotcashesb.dto.ApiUserResponse;
+import com.tangazoletu.spotcashesb.entity.enums.ApiUserStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admin user listing that never hydrates ApiUser entities: rows are mapped
+ * straight from JDBC to ApiUserResponse. Pages seek by ID (WHERE ID > :afterId)
+ * so page N costs the same as page 1, and the export streams rows off the
+ * cursor as they arrive, so it runs in constant memory.
+ */
+@Service
+@Slf4j
+public class ApiUserListingService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String SELECT_USERS = """
+        SELECT ID, USERNAME, APPLICATION_NAME, STATUS, WHITELISTED_IPS, DATE_CREATED, DATE_UPDATED
+        FROM API_USER
+        WHERE ID > ?
+        """;
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate exportJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final IpListConverter ipListConverter = new IpListConverter();
+    private final RowMapper<ApiUserResponse> rowMapper = this::mapRow;
+
+    public ApiUserListingService(JdbcTemplate jdbcTemplate, DataSource dataSource, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+
+        // Larger fetch size for the export; the driver default (10 on Oracle) means a round trip per 10 rows
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(500);
+    }
+
+    @Transactional(readOnly = true)
+    public ApiUserPage findPage(ApiUserFilter filter, long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Object> args = new ArrayList<>();
+        // Fetch one extra row to know whether there is a next page
+        String sql = buildQuery(filter, afterId, args) + " ORDER BY ID FETCH FIRST " + (pageSize + 1) + " ROWS ONLY";
+
+        List<ApiUserResponse> rows = jdbcTemplate.query(sql, rowMapper, args.toArray());
+        if (rows.size() <= pageSize) {
+            return new ApiUserPage(rows, null);
+        }
+        List<ApiUserResponse> page = rows.subList(0, pageSize);
+        return new ApiUserPage(page, page.get(pageSize - 1).getId());
+    }
+
+    /**
+     * Writes every matching user to {@code out} as NDJSON, in ID order.
+     *
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long export(ApiUserFilter filter, OutputStream out) throws IOException {
+        List<Object> args = new ArrayList<>();
+        String sql = buildQuery(filter, 0L, args) + " ORDER BY ID";
+        long[] count = {0};
+
+        try {
+            exportJdbcTemplate.query(sql, (RowCallbackHandler) resultSet -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(mapRow(resultSet, 0)));
+                    out.write(NEWLINE);
+                    count[0]++;
+                } catch (IOException e) {
+                    // Client went away - abandon the cursor
+                    throw new UncheckedIOException(e);
+                }
+            }, args.toArray());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+
+        log.info("Exported {} users", count[0]);
+        return count[0];
+    }
+
+    private static String buildQuery(ApiUserFilter filter, long afterId, List<Object> args) {
+        StringBuilder sql = new StringBuilder(SELECT_USERS);
+        args.add(afterId);
+        if (filter.getStatus() != null) {
+            sql.append(" AND STATUS = ?");
+            args.add(filter.getStatus().name());
+        }
+        if (filter.getApplicationName() != null && !filter.getApplicationName().isBlank()) {
+            sql.append(" AND APPLICATION_NAME = ?");
+            args.add(filter.getApplicationName());
+        }
+        if (filter.getCreatedFrom() != null) {
+            sql.append(" AND DATE_CREATED >= ?");
+            args.add(new Timestamp(filter.getCreatedFrom().getTime()));
+        }
+        if (filter.getCreatedTo() != null) {
+            sql.append(" AND DATE_CREATED < ?");
+            args.add(new Timestamp(filter.getCreatedTo().getTime()));
+        }
+        return sql.toString();
+    }
+
+    private ApiUserResponse mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return ApiUserResponse.builder()
+                .id(rs.getLong("ID"))
+                .username(rs.getString("USERNAME"))
+                .applicationName(rs.getString("APPLICATION_NAME"))
+                .status(ApiUserStatus.valueOf(rs.getString("STATUS")))
+                .whitelistedIps(ipListConverter.convertToEntityAttribute(rs.getString("WHITELISTED_IPS")))
+                .dateCreated(rs.getTimestamp("DATE_CREATED"))
+                .dateUpdated(rs.getTimestamp("DATE_UPDATED"))
+                .build();
+    }
+}
@@ -1,6 +1,8 @@
 package com.tangazoletu.spotcashesb.service;
 
 import com.tangazoletu.spotcashesb.dto.ApiUserResponse;
+import com.tangazoletu.spotcashesb.dto.BulkPermissionRequest;
+import com.tangazoletu.spotcashesb.dto.BulkPermissionResult;
 import com.tangazoletu.spotcashesb.dto.CreateApiUserRequest;
 import com.tangazoletu.spotcashesb.entity.ApiUser;
 
@@ -18,11 +20,22 @@ public interface ApiUserService {
 
     void deleteUser(Long id);
 
+    // Drops cached security state (principal etc.) so it is reloaded from the DB
+    void refreshUser(Long id);
+
+    // Sets an ACTIVE user to LOCKED; returns false if the user is missing or not active
+    boolean lockUser(String username);
+
     List<ApiUserResponse> getAllActiveUsers();
 
     void grantPermissions(Long userId, List<Long> configIds);
 
     void revokePermissions(Long userId, List<Long> configIds);
 
+    // Set-based: a fixed number of statements per 1000 users x 1000 configs
+    BulkPermissionResult grantPermissions(BulkPermissionRequest request);
+
+    BulkPermissionResult revokePermissions(BulkPermissionRequest request);
+
     boolean hasAccessToFunction(Long userId, String functionName);
 }
\ No newline at end of file
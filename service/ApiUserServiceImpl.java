@@ -1,19 +1,33 @@
 package com.tangazoletu.spotcashesb.service;
 
+import com.tangazoletu.spotcashesb.configuration.admin.AdminBulkProperties;
+import com.tangazoletu.spotcashesb.configuration.security.ClusterSyncProperties;
 import com.tangazoletu.spotcashesb.dto.ApiUserResponse;
+import com.tangazoletu.spotcashesb.dto.BulkPermissionRequest;
+import com.tangazoletu.spotcashesb.dto.BulkPermissionResult;
 import com.tangazoletu.spotcashesb.dto.CreateApiUserRequest;
+import com.tangazoletu.spotcashesb.entity.ApiChangeLog;
 import com.tangazoletu.spotcashesb.entity.ApiUser;
-import com.tangazoletu.spotcashesb.entity.ApiUserPermission;
 import com.tangazoletu.spotcashesb.entity.enums.ApiUserStatus;
+import com.tangazoletu.spotcashesb.event.ApiUserChangedEvent;
+import com.tangazoletu.spotcashesb.event.ApiUserChangedEvent.ChangeType;
+import com.tangazoletu.spotcashesb.event.ApiUsersChangedEvent;
 import com.tangazoletu.spotcashesb.exception.ApiUserNotFoundException;
+import com.tangazoletu.spotcashesb.repositories.ApiChangeLogRepository;
 import com.tangazoletu.spotcashesb.repositories.ApiUserPermissionRepository;
 import com.tangazoletu.spotcashesb.repositories.ApiUserRepository;
+import com.tangazoletu.spotcashesb.repositories.projection.ApiUserChangeView;
+import com.tangazoletu.spotcashesb.security.ip.IpWhitelist;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,9 +36,19 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ApiUserServiceImpl implements ApiUserService {
 
+    private static final String INSERT_CHANGE_LOG = """
+        INSERT INTO API_CHANGE_LOG (ID, API_USER_ID, USERNAME, CHANGE_TYPE, NODE_ID, DATE_CREATED)
+        VALUES (API_CHANGE_LOG_SEQ.NEXTVAL, ?, ?, ?, ?, ?)
+        """;
+
     private final ApiUserRepository apiUserRepository;
     private final ApiUserPermissionRepository permissionRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ApiChangeLogRepository changeLogRepository;
+    private final ClusterSyncProperties clusterSyncProperties;
+    private final AdminBulkProperties bulkProperties;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public ApiUser getUserByUsername(String username) {
@@ -33,6 +57,7 @@ public class ApiUserServiceImpl implements ApiUserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ApiUserResponse getUserById(Long id) {
         ApiUser user = apiUserRepository.findById(id)
                 .orElseThrow(() -> new ApiUserNotFoundException("User not found with ID: " + id));
@@ -45,6 +70,7 @@ public class ApiUserServiceImpl implements ApiUserService {
         if (apiUserRepository.existsByUsername(request.getUsername())) {
             throw new IllegalArgumentException("Username already exists: " + request.getUsername());
         }
+        checkWhitelist(request.getWhitelistedIps());
 
         ApiUser user = ApiUser.builder()
                 .username(request.getUsername())
@@ -72,11 +98,13 @@ public class ApiUserServiceImpl implements ApiUserService {
         ApiUser user = apiUserRepository.findById(id)
                 .orElseThrow(() -> new ApiUserNotFoundException("User not found with ID: " + id));
 
+        checkWhitelist(request.getWhitelistedIps());
         user.setApplicationName(request.getApplicationName());
         user.setWhitelistedIps(request.getWhitelistedIps());
 
         // Only update password if explicitly provided
-        if (request.getPassword() != null && !request.getPassword().isBlank()) {
+        boolean passwordChanged = request.getPassword() != null && !request.getPassword().isBlank();
+        if (passwordChanged) {
             user.setPassword(passwordEncoder.encode(request.getPassword()));
             log.info("Password updated for user: '{}'", user.getUsername());
         }
@@ -84,6 +112,8 @@ public class ApiUserServiceImpl implements ApiUserService {
         ApiUser updated = apiUserRepository.save(user);
         log.info("Updated user: '{}'", updated.getUsername());
 
+        publishChange(updated, passwordChanged ? ChangeType.PASSWORD_CHANGED : ChangeType.UPDATED);
+
         return toUserResponse(updated);
     }
 
@@ -98,9 +128,36 @@ public class ApiUserServiceImpl implements ApiUserService {
         apiUserRepository.save(user);
 
         log.info("Deactivated user: '{}' (ID: {})", user.getUsername(), id);
+        publishChange(user, ChangeType.DEACTIVATED);
+    }
+
+    @Override
+    public void refreshUser(Long id) {
+        ApiUser user = apiUserRepository.findById(id)
+                .orElseThrow(() -> new ApiUserNotFoundException("User not found with ID: " + id));
+
+        log.info("Refreshing cached security state for user: '{}' (ID: {})", user.getUsername(), id);
+        publishChange(user, ChangeType.REFRESHED);
+    }
+
+    @Override
+    @Transactional
+    public boolean lockUser(String username) {
+        ApiUser user = apiUserRepository.findByUsername(username).orElse(null);
+        if (user == null || user.getStatus() != ApiUserStatus.ACTIVE) {
+            return false;
+        }
+
+        user.setStatus(ApiUserStatus.LOCKED);
+        apiUserRepository.save(user);
+
+        log.warn("Locked user: '{}' (ID: {}) after repeated failed logins", username, user.getId());
+        publishChange(user, ChangeType.LOCKED);
+        return true;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ApiUserResponse> getAllActiveUsers() {
         return apiUserRepository.findByStatus(ApiUserStatus.ACTIVE)
                 .stream()
@@ -111,22 +168,18 @@ public class ApiUserServiceImpl implements ApiUserService {
     @Override
     @Transactional
     public void grantPermissions(Long userId, List<Long> configIds) {
-        apiUserRepository.findById(userId)
+        ApiUser user = apiUserRepository.findById(userId)
                 .orElseThrow(() -> new ApiUserNotFoundException("User not found with ID: " + userId));
 
-        // Only insert permissions that don't already exist
-        List<ApiUserPermission> newPermissions = configIds.stream()
-                .filter(configId -> !permissionRepository
-                        .existsByApiUserIdAndApiConfigId(userId, configId))
-                .map(configId -> ApiUserPermission.builder()
-                        .apiUserId(userId)
-                        .apiConfigId(configId)
-                        .build())
-                .collect(Collectors.toList());
+        // Only insert permissions that don't already exist - one INSERT ... SELECT per chunk
+        int granted = 0;
+        for (List<Long> configChunk : partition(configIds)) {
+            granted += permissionRepository.grantBatchPermissions(userId, configChunk);
+        }
 
-        if (!newPermissions.isEmpty()) {
-            permissionRepository.saveAll(newPermissions);
-            log.info("Granted {} permissions to user ID: {}", newPermissions.size(), userId);
+        if (granted > 0) {
+            log.info("Granted {} permissions to user ID: {}", granted, userId);
+            publishChange(user, ChangeType.PERMISSIONS_GRANTED);
         } else {
             log.info("No new permissions to grant for user ID: {} (all already exist)", userId);
         }
@@ -135,14 +188,82 @@ public class ApiUserServiceImpl implements ApiUserService {
     @Override
     @Transactional
     public void revokePermissions(Long userId, List<Long> configIds) {
-        configIds.forEach(configId ->
-                permissionRepository
-                        .findByApiUserIdAndApiConfigId(userId, configId)
-                        .ifPresent(permission -> {
-                            permissionRepository.delete(permission);
-                            log.info("Revoked permission - User: {}, Config: {}", userId, configId);
-                        })
-        );
+        ApiUser user = apiUserRepository.findById(userId)
+                .orElseThrow(() -> new ApiUserNotFoundException("User not found with ID: " + userId));
+
+        int revoked = 0;
+        for (List<Long> configChunk : partition(configIds)) {
+            revoked += permissionRepository.revokeFromUsers(List.of(userId), configChunk);
+        }
+
+        if (revoked > 0) {
+            log.info("Revoked {} permissions from user ID: {}", revoked, userId);
+            publishChange(user, ChangeType.PERMISSIONS_REVOKED);
+        }
+    }
+
+    @Override
+    @Transactional
+    public BulkPermissionResult grantPermissions(BulkPermissionRequest request) {
+        List<List<Long>> configChunks = partition(request.getConfigIds());
+        List<ApiUserChangeView> users = new ArrayList<>();
+        int granted = 0;
+
+        if (request.getApplicationName() != null && !request.getApplicationName().isBlank()) {
+            for (List<Long> configChunk : configChunks) {
+                granted += permissionRepository.grantToApplication(request.getApplicationName(), configChunk);
+            }
+            users.addAll(apiUserRepository.findChangeViewsByApplicationName(request.getApplicationName()));
+        } else {
+            for (List<Long> userChunk : partition(request.getUserIds())) {
+                for (List<Long> configChunk : configChunks) {
+                    granted += permissionRepository.grantToUsers(userChunk, configChunk);
+                }
+                users.addAll(apiUserRepository.findChangeViewsByIdIn(userChunk));
+            }
+        }
+
+        log.info("Bulk grant of {} configs: {} permissions inserted across {} users",
+                request.getConfigIds().size(), granted, users.size());
+        if (granted > 0) {
+            publishChanges(users, ChangeType.PERMISSIONS_GRANTED);
+        }
+        return new BulkPermissionResult(users.size(), granted);
+    }
+
+    @Override
+    @Transactional
+    public BulkPermissionResult revokePermissions(BulkPermissionRequest request) {
+        List<List<Long>> configChunks = partition(request.getConfigIds());
+        List<Long> affectedUserIds = new ArrayList<>();
+        int revoked = 0;
+
+        // Resolve who actually holds the configs first - only they get their tokens revoked
+        if (request.getApplicationName() != null && !request.getApplicationName().isBlank()) {
+            for (List<Long> configChunk : configChunks) {
+                affectedUserIds.addAll(permissionRepository
+                        .findApplicationUserIdsHoldingAny(request.getApplicationName(), configChunk));
+                revoked += permissionRepository.revokeFromApplication(request.getApplicationName(), configChunk);
+            }
+        } else {
+            for (List<Long> userChunk : partition(request.getUserIds())) {
+                for (List<Long> configChunk : configChunks) {
+                    affectedUserIds.addAll(permissionRepository.findUserIdsHoldingAny(userChunk, configChunk));
+                    revoked += permissionRepository.revokeFromUsers(userChunk, configChunk);
+                }
+            }
+        }
+
+        List<Long> distinctUserIds = affectedUserIds.stream().distinct().collect(Collectors.toList());
+        List<ApiUserChangeView> users = new ArrayList<>(distinctUserIds.size());
+        for (List<Long> userChunk : partition(distinctUserIds)) {
+            users.addAll(apiUserRepository.findChangeViewsByIdIn(userChunk));
+        }
+
+        log.info("Bulk revoke of {} configs: {} permissions deleted across {} users",
+                request.getConfigIds().size(), revoked, users.size());
+        publishChanges(users, ChangeType.PERMISSIONS_REVOKED);
+        return new BulkPermissionResult(users.size(), revoked);
     }
 
     @Override
@@ -150,6 +271,57 @@ public class ApiUserServiceImpl implements ApiUserService {
         return permissionRepository.userHasAccessToFunction(userId, functionName);
     }
 
+    // An entry the matcher can't compile would be skipped at login - the client would just get 403s
+    private static void checkWhitelist(List<String> whitelistedIps) {
+        List<String> invalid = IpWhitelist.invalidEntries(whitelistedIps);
+        if (!invalid.isEmpty()) {
+            throw new IllegalArgumentException("Invalid IP whitelist entries: " + invalid);
+        }
+    }
+
+    private void publishChange(ApiUser user, ChangeType changeType) {
+        if (clusterSyncProperties.isEnabled()) {
+            // Same transaction as the change - other nodes see both or neither
+            changeLogRepository.save(ApiChangeLog.builder()
+                    .apiUserId(user.getId())
+                    .username(user.getUsername())
+                    .changeType(changeType.name())
+                    .nodeId(clusterSyncProperties.getNodeId())
+                    .build());
+        }
+        eventPublisher.publishEvent(new ApiUserChangedEvent(user.getId(), user.getUsername(), changeType));
+    }
+
+    private void publishChanges(List<ApiUserChangeView> users, ChangeType changeType) {
+        if (users.isEmpty()) {
+            return;
+        }
+        if (clusterSyncProperties.isEnabled()) {
+            // One batched insert rather than a JPA save (and sequence round trip) per user
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            jdbcTemplate.batchUpdate(INSERT_CHANGE_LOG, users.stream()
+                    .map(user -> new Object[]{user.getId(), user.getUsername(), changeType.name(),
+                            clusterSyncProperties.getNodeId(), now})
+                    .collect(Collectors.toList()));
+        }
+        // One event for the batch - listeners copy their per-user tables once, not once per user
+        eventPublisher.publishEvent(new ApiUsersChangedEvent(
+                users.stream().map(ApiUserChangeView::getId).collect(Collectors.toList()),
+                users.stream().map(ApiUserChangeView::getUsername).collect(Collectors.toList()),
+                changeType));
+    }
+
+    // Keeps every IN list within Oracle's 1000-expression limit
+    private List<List<Long>> partition(List<Long> ids) {
+        int size = bulkProperties.getBatchSize();
+        List<Long> distinct = ids.stream().distinct().collect(Collectors.toList());
+        List<List<Long>> chunks = new ArrayList<>((distinct.size() + size - 1) / size);
+        for (int from = 0; from < distinct.size(); from += size) {
+            chunks.add(distinct.subList(from, Math.min(from + size, distinct.size())));
+        }
+        return chunks;
+    }
+
     private ApiUserResponse toUserResponse(ApiUser user) {
         return ApiUserResponse.builder()
                 .id(user.getId())
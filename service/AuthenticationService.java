@@ -1,15 +1,25 @@
 package com.tangazoletu.spotcashesb.service;
 
+import com.tangazoletu.spotcashesb.configuration.security.LoginProperties;
 import com.tangazoletu.spotcashesb.dto.AuthRequest;
 import com.tangazoletu.spotcashesb.dto.AuthResponse;
 import com.tangazoletu.spotcashesb.security.jwt.JwtUtil;
+import com.tangazoletu.spotcashesb.security.jwt.TokenValidationResult;
+import com.tangazoletu.spotcashesb.security.login.LoginBusyException;
+import com.tangazoletu.spotcashesb.security.login.LoginThrottle;
+import com.tangazoletu.spotcashesb.security.login.LoginThrottledException;
+import com.tangazoletu.spotcashesb.security.login.PasswordVerificationExecutor;
+import com.tangazoletu.spotcashesb.security.metrics.SecurityMetrics;
 import com.tangazoletu.spotcashesb.security.userdetails.SecurityUser;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -22,36 +32,80 @@ public class AuthenticationService {
 
     private final AuthenticationManager authManager;
     private final JwtUtil jwtUtil;
-
-    public AuthResponse authenticate(AuthRequest request, HttpServletResponse httpResponse) {
+    private final SecurityMetrics securityMetrics;
+    private final PasswordVerificationExecutor passwordVerificationExecutor;
+    private final LoginProperties loginProperties;
+    private final LoginThrottle loginThrottle;
+    private final ApiUserService apiUserService;
+
+    public AuthResponse authenticate(AuthRequest request, String clientIp, HttpServletResponse httpResponse) {
+        long start = System.nanoTime();
         try {
-            Authentication authentication = authManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getUsername(),
-                            request.getPassword()
+            // Blocked usernames / IPs are turned away before any DB lookup or hash
+            loginThrottle.checkAllowed(request.getUsername(), clientIp);
+
+            // Lookup + hash run on the bounded hashing pool, not on this servlet thread
+            Authentication authentication = passwordVerificationExecutor.verify(() ->
+                    authManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(
+                                    request.getUsername(),
+                                    request.getPassword()
+                            )
                     )
             );
 
             SecurityUser securityUser = (SecurityUser) authentication.getPrincipal();
 
-            String token = jwtUtil.generateToken(securityUser.getApiUser());
+            String token = jwtUtil.generateToken(securityUser);
+            loginThrottle.recordSuccess(request.getUsername());
 
             log.info("User '{}' authenticated successfully", securityUser.getUsername());
+            securityMetrics.recordAuthentication("success", start);
 
             return AuthResponse.success(token);
 
+        } catch (LoginThrottledException e) {
+            securityMetrics.recordAuthentication("throttled", start);
+            securityMetrics.recordLoginThrottled(e.getDimension());
+            httpResponse.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            httpResponse.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            return AuthResponse.failure(AuthResponse.ResponseCodes.TOO_MANY_ATTEMPTS,
+                    "Too many failed attempts. Please retry later");
+
         } catch (UsernameNotFoundException | BadCredentialsException e) {
             // Don't reveal whether username exists
+            boolean passwordMismatch = e instanceof BadCredentialsException;
+            securityMetrics.recordAuthentication(passwordMismatch ? "bad_credentials" : "unknown_user", start);
             log.warn("Failed login attempt for username: '{}'", request.getUsername());
+            if (loginThrottle.recordFailure(request.getUsername(), clientIp, passwordMismatch)) {
+                lockAfterRepeatedFailures(request.getUsername());
+            }
             httpResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return AuthResponse.failure("Invalid username or password");
 
+        } catch (LockedException e) {
+            securityMetrics.recordAuthentication("locked", start);
+            log.warn("Locked account login attempt: '{}'", request.getUsername());
+            httpResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return AuthResponse.failure("Your API credentials have been locked");
+
+        } catch (LoginBusyException e) {
+            securityMetrics.recordAuthentication("busy", start);
+            log.debug("Login for '{}' turned away: {}", request.getUsername(), e.getReason());
+            httpResponse.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            httpResponse.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(loginProperties.getHashing().getRetryAfterSeconds()));
+            return AuthResponse.failure(AuthResponse.ResponseCodes.BUSY,
+                    "Authentication is busy. Please retry shortly");
+
         } catch (DisabledException e) {
+            securityMetrics.recordAuthentication("disabled", start);
             log.warn("Disabled account login attempt: '{}'", request.getUsername());
             httpResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return AuthResponse.failure("Your API credentials have been deactivated");
 
         } catch (Exception e) {
+            securityMetrics.recordAuthentication("error", start);
             log.error("Unexpected error during authentication for '{}': {}",
                     request.getUsername(), e.getMessage(), e);
             httpResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
@@ -59,7 +113,19 @@ public class AuthenticationService {
         }
     }
 
+    private void lockAfterRepeatedFailures(String username) {
+        try {
+            if (apiUserService.lockUser(username)) {
+                log.warn("User '{}' locked after repeated failed logins", username);
+            }
+        } catch (Exception e) {
+            // Never turn a failed login into a 500 because the lock could not be written
+            log.error("Failed to lock user '{}': {}", username, e.getMessage(), e);
+        }
+    }
+
     public AuthResponse refresh(String bearerToken, HttpServletResponse httpResponse) {
+        long start = System.nanoTime();
         try {
             // Strip "Bearer " prefix
             String token = bearerToken.startsWith("Bearer ")
@@ -67,28 +133,33 @@ public class AuthenticationService {
                            : bearerToken;
 
             // Validate token (allow slightly expired with grace period - see JwtUtil)
-            if (!jwtUtil.validateTokenWithGrace(token)) {
+            TokenValidationResult result = jwtUtil.verifyWithGrace(token);
+            if (!result.isValid()) {
+                securityMetrics.recordRefresh("invalid_token", start);
                 httpResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return AuthResponse.failure("Token is invalid or too expired to refresh");
             }
 
-            String username = jwtUtil.getSubject(token);
+            String username = result.getToken().getSubject();
 
             // Re-load user to get fresh permissions/status
-            SecurityUser securityUser = jwtUtil.getUserFromToken(token);
+            SecurityUser securityUser = jwtUtil.loadUser(result.getToken());
 
             if (!securityUser.isEnabled()) {
+                securityMetrics.recordRefresh("disabled", start);
                 httpResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return AuthResponse.failure("Account has been deactivated");
             }
 
-            String newToken = jwtUtil.generateToken(securityUser.getApiUser());
+            String newToken = jwtUtil.generateToken(securityUser);
 
             log.info("Token refreshed for user '{}'", username);
+            securityMetrics.recordRefresh("success", start);
 
             return AuthResponse.success(newToken);
 
         } catch (Exception e) {
+            securityMetrics.recordRefresh("error", start);
             log.error("Token refresh failed: {}", e.getMessage());
             httpResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return AuthResponse.failure("Token refresh failed");